@@ -0,0 +1,25 @@
+package com.example.backend.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JMH entry point that always leaves machine-readable results behind: unless
+ * -rf is given, results are written as JSON, to jmh-result.json in the working
+ * directory or wherever -rff points. Keep that file per release and compare
+ * them to spot regressions.
+ *
+ * java -jar benchmarks/target/benchmarks.jar [JMH options] [benchmark regex]
+ */
+public final class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf")) {
+            options.add(0, "json");
+            options.add(0, "-rf");
+        }
+        org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.backend.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Concurrency check for the borrow path against a running server: fires many
+ * borrows of one available item at the same instant and expects exactly one 200.
+ * Losers get 409 (lost the conditional update) or 400 (already saw it borrowed).
+ *
+ * java -cp benchmarks/target/benchmarks.jar com.example.backend.bench.BorrowRaceCheck \
+ *     http://localhost:8080 user@example.com password equipmentId [threads]
+ *
+ * The equipment must be available and the user must have no overdue bookings.
+ * Return the booking afterwards to run again.
+ *
+ * The build covers the same guarantee in EquipmentCheckoutServiceTest; this
+ * check is for a deployed server and its real database.
+ */
+public final class BorrowRaceCheck {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("usage: BorrowRaceCheck baseUrl email password equipmentId [threads]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        long equipmentId = Long.parseLong(args[3]);
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : 32;
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String token = login(client, baseUrl, args[1], args[2]);
+
+        String body = JSON.writeValueAsString(Map.of("equipmentId", equipmentId, "durationType", "hours", "duration", 1));
+        HttpRequest borrow = HttpRequest.newBuilder(URI.create(baseUrl + "/api/qr-scan/borrow"))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<HttpResponse<String>>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return client.send(borrow, HttpResponse.BodyHandlers.ofString());
+            }));
+        }
+        start.countDown();
+
+        Map<Integer, Integer> byStatus = new TreeMap<>();
+        Long bookingId = null;
+        for (Future<HttpResponse<String>> result : results) {
+            HttpResponse<String> response = result.get();
+            byStatus.merge(response.statusCode(), 1, Integer::sum);
+            if (response.statusCode() == 200) {
+                bookingId = JSON.readTree(response.body()).path("booking").path("id").asLong();
+            }
+        }
+        pool.shutdown();
+
+        int winners = byStatus.getOrDefault(200, 0);
+        System.out.printf("%d concurrent borrows of equipment %d: %s%n", threads, equipmentId, byStatus);
+        if (winners == 1) {
+            System.out.printf("OK - exactly one borrow won (booking %d)%n", bookingId);
+        } else {
+            System.out.printf("FAILED - %d borrows won%n", winners);
+            System.exit(1);
+        }
+    }
+
+    private static String login(HttpClient client, String baseUrl, String email, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(Map.of("email", email, "password", password))))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonNode token = JSON.readTree(response.body()).path("token");
+        if (response.statusCode() != 200 || token.isMissingNode()) {
+            throw new IllegalStateException("Login failed: " + response.statusCode() + " " + response.body());
+        }
+        return token.asText();
+    }
+}
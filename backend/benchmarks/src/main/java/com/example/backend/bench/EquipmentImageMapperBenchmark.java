@@ -0,0 +1,50 @@
+package com.example.backend.bench;
+
+import com.example.backend.util.EquipmentImageMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Image lookup for new equipment, one match path per run: a name keyword, an
+ * exact category, a category differing in case, and no match at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EquipmentImageMapperBenchmark {
+
+    @Param({"keyword", "category", "categoryCase", "fallback"})
+    public String match;
+
+    private String name;
+    private String category;
+
+    @Setup
+    public void setup() {
+        switch (match) {
+            case "keyword" -> { name = "John Deere 5050D Tractor"; category = "Tractor"; }
+            case "category" -> { name = "Heavy Duty 9 Tyne Unit"; category = "Cultivator"; }
+            case "categoryCase" -> { name = "Heavy Duty 9 Tyne Unit"; category = "cultivator"; }
+            default -> { name = "Heavy Duty 9 Tyne Unit"; category = "Baler"; }
+        }
+    }
+
+    @Benchmark
+    public String imageForEquipment() {
+        return EquipmentImageMapper.getImageForEquipment(name, category);
+    }
+}
@@ -0,0 +1,460 @@
+package com.example.backend.bench;
+
+import com.example.backend.EquipmentSharingBackendApplication;
+import com.example.backend.model.Equipment;
+import com.example.backend.model.User;
+import com.example.backend.repository.EquipmentRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.service.EquipmentGeoIndex;
+import com.example.backend.service.QRCodeService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Harvest-day load test: boots the backend on a random port against a scratch
+ * in-memory H2 database, seeds farmers, operators and equipment, then has many
+ * simulated farmers log in, browse, scan, borrow and return over HTTP. Prints
+ * p50/p99 latency, throughput and error rates per endpoint.
+ *
+ * java -cp benchmarks/target/benchmarks.jar com.example.backend.bench.HarvestDayLoadTest \
+ *     [rate] [seconds] [farmers] [equipment] [warmupSeconds] [sessions]
+ *
+ * Defaults are 200 requests per second for 60 seconds over 5000 farmers and
+ * 2000 equipment items, after 10 seconds of unrecorded warmup, with 500 farmers
+ * signed in at once.
+ *
+ * The load is open-loop: requests start on a fixed schedule whether or not
+ * earlier ones have answered, each from a signed-in farmer who has nothing in
+ * flight, and latency is measured from the scheduled start. A slow server
+ * therefore shows up as queueing in p99 and as more requests in flight, not as
+ * clients quietly sending less (coordinated omission). An arrival that finds
+ * every session busy is counted as unserved.
+ *
+ * Any backend property can be overridden with -D, e.g.
+ * -Dspring.datasource.hikari.maximum-pool-size=20.
+ *
+ * 4xx answers the mix expects (equipment already taken, lost borrow races)
+ * are counted as rejected; 5xx answers and failed connections are errors.
+ */
+public final class HarvestDayLoadTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final String PASSWORD = "password";
+    private static final String[] CATEGORIES = {
+        "Tractor", "Harvester", "Plow", "Irrigation", "Seeder", "Sprayer", "Cultivator", "Rotavator", "Thresher", "Loader"
+    };
+    private static final String[] VILLAGES = { "Khera", "Rampur", "Sundarpur", "Bhimpur", "Lakhanpur", "Devgarh" };
+
+    // Khera, where the demo data lives
+    private static final double CENTER_LAT = 10.5276;
+    private static final double CENTER_LNG = 76.2144;
+
+    private static final int EQUIPMENT_PER_OPERATOR = 20;
+    private static final int SEED_BATCH = 500;
+
+    // Requests scheduled inside this window are recorded
+    private static volatile long recordFrom = Long.MAX_VALUE;
+    private static volatile long recordTo = Long.MAX_VALUE;
+
+    public static void main(String[] args) throws Exception {
+        double rate = args.length > 0 ? Double.parseDouble(args[0]) : 200;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int farmers = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+        int equipmentCount = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+        int warmupSeconds = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+        int sessions = args.length > 5 ? Integer.parseInt(args[5]) : 500;
+
+        Path scratch = Files.createTempDirectory("harvest-day");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EquipmentSharingBackendApplication.class)
+                .run("--server.port=0",
+                     "--spring.datasource.url=jdbc:h2:mem:harvest-day;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                     "--spring.jpa.hibernate.ddl-auto=create-drop",
+                     "--spring.h2.console.enabled=false",
+                     "--management.server.port=-1",
+                     "--jwt.keyring.path=" + scratch.resolve("jwt-keyring.properties"),
+                     "--qr.token.keys-path=" + scratch.resolve("qr-keys.properties"),
+                     "--spring.main.banner-mode=off",
+                     "--logging.level.root=WARN");
+
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        long seedStart = System.nanoTime();
+        Fleet fleet = seed(context, farmers, equipmentCount);
+        System.out.printf("Seeded %d farmers and %d equipment items in %d ms%n",
+                farmers, fleet.ids().length, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+        Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+        for (String name : new String[] {
+            "POST /auth/login", "GET /equipment", "GET /equipment/catalog",
+            "POST /api/qr-scan/validate", "POST /api/qr-scan/borrow", "POST /api/qr-scan/return"
+        }) {
+            endpoints.put(name, new Endpoint(name));
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        Queue<Farmer> idle = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < Math.min(sessions, farmers); i++) {
+            idle.add(new Farmer(client, baseUrl, endpoints, fleet, farmerEmail(i)));
+        }
+
+        System.out.printf("Sending %.0f req/s to %s from %d sessions: %ds warmup, %ds measured%n",
+                rate, baseUrl, idle.size(), warmupSeconds, seconds);
+        AtomicInteger inFlight = new AtomicInteger();
+        int maxInFlight = 0;
+        int unserved = 0;
+
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long scheduled = System.nanoTime();
+        recordFrom = scheduled + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        recordTo = recordFrom + TimeUnit.SECONDS.toNanos(seconds);
+        for (; scheduled < recordTo; scheduled += interval) {
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) LockSupport.parkNanos(wait);
+
+            // A late start still counts from its slot, so scheduler lag shows up as latency
+            Farmer farmer = idle.poll();
+            if (farmer == null) {
+                if (scheduled >= recordFrom) unserved++;
+                continue;
+            }
+            maxInFlight = Math.max(maxInFlight, inFlight.incrementAndGet());
+            farmer.step(scheduled).whenComplete((ignored, e) -> {
+                inFlight.decrementAndGet();
+                idle.add(farmer);
+            });
+        }
+        long elapsed = recordTo - recordFrom;
+
+        long drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) Thread.sleep(10);
+
+        System.out.printf("%nPeak requests in flight: %d, arrivals with every session busy: %d%n", maxInFlight, unserved);
+        report(endpoints.values(), elapsed);
+        context.close();
+        System.exit(0);
+    }
+
+    /** Equipment ids and their printed QR labels, by index */
+    private record Fleet(long[] ids, String[] labels, String[] categories) {}
+
+    /**
+     * Insert the data straight through the repositories: registering thousands
+     * of farmers over HTTP would spend minutes hashing the same password.
+     */
+    private static Fleet seed(ConfigurableApplicationContext context, int farmers, int equipmentCount) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        EquipmentRepository equipmentRepository = context.getBean(EquipmentRepository.class);
+        QRCodeService qrCodeService = context.getBean(QRCodeService.class);
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        List<User> batch = new ArrayList<>(SEED_BATCH);
+        for (int i = 0; i < farmers; i++) {
+            User farmer = new User();
+            farmer.name = "Farmer " + i;
+            farmer.email = farmerEmail(i);
+            farmer.phone = String.format("+91 9%09d", i);
+            farmer.role = "USER";
+            farmer.village = VILLAGES[i % VILLAGES.length];
+            farmer.address = farmer.village + " Village";
+            farmer.password = hash;
+            batch.add(farmer);
+            if (batch.size() == SEED_BATCH) {
+                userRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+
+        List<User> operators = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, equipmentCount / EQUIPMENT_PER_OPERATOR); i++) {
+            User operator = new User();
+            operator.name = "Operator " + i;
+            operator.email = "operator" + i + "@harvest.test";
+            operator.role = "OPERATOR";
+            operator.village = VILLAGES[i % VILLAGES.length];
+            operator.password = hash;
+            batch.add(operator);
+            operators.add(operator);
+        }
+        userRepository.saveAll(batch);
+
+        List<Equipment> equipment = new ArrayList<>(equipmentCount);
+        for (int i = 0; i < equipmentCount; i++) {
+            User operator = operators.get(i % operators.size());
+            Equipment e = new Equipment();
+            e.category = CATEGORIES[i % CATEGORIES.length];
+            e.name = e.category + " " + i;
+            e.description = "Load test " + e.category.toLowerCase();
+            e.pricePerHour = 100.0 + random.nextInt(20) * 50;
+            e.pricePerDay = e.pricePerHour * 7;
+            e.operatorId = operator.id;
+            e.operatorName = operator.name;
+            e.location = new Equipment.Location();
+            e.location.lat = CENTER_LAT + random.nextDouble(-0.5, 0.5);
+            e.location.lng = CENTER_LNG + random.nextDouble(-0.5, 0.5);
+            e.location.address = operator.village + " Village";
+            equipment.add(e);
+        }
+        for (int from = 0; from < equipment.size(); from += SEED_BATCH) {
+            List<Equipment> chunk = equipment.subList(from, Math.min(equipment.size(), from + SEED_BATCH));
+            equipmentRepository.saveAll(chunk);
+            // Labels carry the id, so they are printed once the rows exist
+            for (Equipment e : chunk) {
+                e.qrCode = qrCodeService.generateRichEquipmentQRData(e.id, e.name, e.location.address, "AVAILABLE");
+            }
+            equipmentRepository.saveAll(chunk);
+        }
+        context.getBean(EquipmentGeoIndex.class).rebuild();
+
+        long[] ids = new long[equipment.size()];
+        String[] labels = new String[equipment.size()];
+        String[] categories = new String[equipment.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Equipment e = equipment.get(i);
+            ids[i] = e.id;
+            labels[i] = e.qrCode;
+            categories[i] = e.category;
+        }
+        return new Fleet(ids, labels, categories);
+    }
+
+    private static String farmerEmail(int i) {
+        return "farmer" + i + "@harvest.test";
+    }
+
+    /**
+     * One farmer's session, weighted toward reads the way the app is used in the
+     * field: browse and scan often, borrow what's free, return it next time round.
+     */
+    private static final class Farmer {
+        private final HttpClient client;
+        private final String baseUrl;
+        private final Map<String, Endpoint> endpoints;
+        private final Fleet fleet;
+        private final String email;
+
+        private String token;
+        private long heldBooking = -1;
+        private long heldEquipment = -1;
+
+        Farmer(HttpClient client, String baseUrl, Map<String, Endpoint> endpoints, Fleet fleet, String email) {
+            this.client = client;
+            this.baseUrl = baseUrl;
+            this.endpoints = endpoints;
+            this.fleet = fleet;
+            this.email = email;
+        }
+
+        /**
+         * Start this farmer's next request
+         * @param scheduled When the request was due to start, in System.nanoTime()
+         */
+        CompletableFuture<Void> step(long scheduled) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int roll = random.nextInt(100);
+            int pick = random.nextInt(fleet.ids().length);
+            if (token == null || roll < 3) {
+                return login(scheduled);
+            } else if (roll < 33) {
+                return browse(fleet.categories()[pick], scheduled);
+            } else if (roll < 48) {
+                return catalog(random.nextInt(2) == 0 ? null : fleet.ids()[pick], scheduled);
+            } else if (roll < 78) {
+                return validate(fleet.labels()[pick], scheduled);
+            } else if (heldBooking < 0) {
+                return borrow(fleet.ids()[pick], scheduled);
+            } else {
+                return giveBack(scheduled);
+            }
+        }
+
+        private CompletableFuture<Void> login(long scheduled) {
+            return send("POST /auth/login", post("/auth/login", Map.of("email", email, "password", PASSWORD)), scheduled)
+                    .thenAccept(response -> {
+                        if (response != null && response.statusCode() == 200) {
+                            token = read(response).path("token").asText(null);
+                        }
+                    });
+        }
+
+        private CompletableFuture<Void> browse(String category, long scheduled) {
+            return send("GET /equipment", get("/equipment?category=" + category), scheduled).thenAccept(response -> {});
+        }
+
+        private CompletableFuture<Void> catalog(Long after, long scheduled) {
+            return send("GET /equipment/catalog",
+                    get("/equipment/catalog?available=true&limit=20" + (after != null ? "&after=" + after : "")), scheduled)
+                    .thenAccept(response -> {});
+        }
+
+        private CompletableFuture<Void> validate(String label, long scheduled) {
+            return send("POST /api/qr-scan/validate", post("/api/qr-scan/validate", Map.of("qrData", label)), scheduled)
+                    .thenAccept(response -> {});
+        }
+
+        private CompletableFuture<Void> borrow(long equipmentId, long scheduled) {
+            return send("POST /api/qr-scan/borrow", post("/api/qr-scan/borrow",
+                    Map.of("equipmentId", equipmentId, "durationType", "hours", "duration", 1)), scheduled)
+                    .thenAccept(response -> {
+                        if (response != null && response.statusCode() == 200) {
+                            heldBooking = read(response).path("booking").path("id").asLong(-1);
+                            heldEquipment = equipmentId;
+                        }
+                    });
+        }
+
+        private CompletableFuture<Void> giveBack(long scheduled) {
+            return send("POST /api/qr-scan/return", post("/api/qr-scan/return",
+                    Map.of("bookingId", heldBooking, "equipmentId", heldEquipment)), scheduled)
+                    .thenAccept(response -> {
+                        // Try again next round unless the server is done with this booking
+                        if (response != null && response.statusCode() < 500) {
+                            heldBooking = -1;
+                            heldEquipment = -1;
+                        }
+                    });
+        }
+
+        private HttpRequest.Builder get(String path) {
+            return authorized(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+        }
+
+        private HttpRequest.Builder post(String path, Map<String, Object> body) {
+            try {
+                return authorized(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(body))));
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+
+        private HttpRequest.Builder authorized(HttpRequest.Builder request) {
+            return token != null ? request.header("Authorization", "Bearer " + token) : request;
+        }
+
+        /**
+         * @return The response, or null if the request failed before one arrived
+         */
+        private CompletableFuture<HttpResponse<String>> send(String endpoint, HttpRequest.Builder request, long scheduled) {
+            Endpoint stats = endpoints.get(endpoint);
+            return client.sendAsync(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString())
+                    .handle((response, error) -> {
+                        if (scheduled >= recordFrom && scheduled < recordTo) {
+                            stats.record(System.nanoTime() - scheduled, response != null ? response.statusCode() : -1);
+                        }
+                        if (response != null && response.statusCode() == 401) token = null;
+                        return response;
+                    });
+        }
+
+        private static JsonNode read(HttpResponse<String> response) {
+            try {
+                return JSON.readTree(response.body());
+            } catch (IOException e) {
+                return JSON.missingNode();
+            }
+        }
+    }
+
+    /** Latencies and outcomes for one endpoint, kept in full so percentiles are exact */
+    private static final class Endpoint {
+        final String name;
+        private long[] latencies = new long[1 << 14];
+        private int count;
+        private int rejected;
+        private int errors;
+
+        Endpoint(String name) {
+            this.name = name;
+        }
+
+        synchronized void record(long nanos, int status) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+            if (status < 0 || status >= 500) errors++;
+            else if (status >= 400) rejected++;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    private static void report(Iterable<Endpoint> endpoints, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        String row = "%-28s %9s %9s %9s %9s %9s %9s %9s%n";
+        System.out.println();
+        System.out.printf(row, "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "4xx %", "error %");
+
+        long[] all = new long[0];
+        int rejected = 0;
+        int errors = 0;
+        for (Endpoint endpoint : endpoints) {
+            long[] sorted = endpoint.sorted();
+            printRow(row, endpoint.name, sorted, endpoint.rejected, endpoint.errors, seconds);
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + sorted.length);
+            System.arraycopy(sorted, 0, all, offset, sorted.length);
+            rejected += endpoint.rejected;
+            errors += endpoint.errors;
+        }
+        Arrays.sort(all);
+        printRow(row, "total", all, rejected, errors, seconds);
+    }
+
+    private static void printRow(String row, String name, long[] sorted, int rejected, int errors, double seconds) {
+        int n = sorted.length;
+        System.out.printf(row, name, n,
+                String.format("%.1f", n / seconds),
+                millis(percentile(sorted, 0.50)),
+                millis(percentile(sorted, 0.99)),
+                millis(n > 0 ? sorted[n - 1] : 0),
+                percent(rejected, n),
+                percent(errors, n));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
+    }
+
+    private static String percent(int part, int total) {
+        return total == 0 ? "-" : String.format("%.2f", 100.0 * part / total);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.backend.bench;
+
+import com.example.backend.model.Booking;
+import com.example.backend.model.Equipment;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response serialization of the entities the API returns most: one Equipment,
+ * one Booking, and a 20-item equipment list as GET /equipment sends it.
+ * The mapper is configured like Spring Boot's default one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private static final int LIST_SIZE = 20;
+
+    private ObjectMapper mapper;
+    private Equipment equipment;
+    private Booking booking;
+    private List<Equipment> equipmentList;
+
+    @Setup
+    public void setup() {
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .build();
+        equipment = equipment(1042L);
+        booking = booking();
+        equipmentList = new ArrayList<>(LIST_SIZE);
+        for (long id = 1; id <= LIST_SIZE; id++) equipmentList.add(equipment(id));
+    }
+
+    @Benchmark
+    public byte[] serializeEquipment() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(equipment);
+    }
+
+    @Benchmark
+    public byte[] serializeBooking() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(booking);
+    }
+
+    @Benchmark
+    public byte[] serializeEquipmentList() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(equipmentList);
+    }
+
+    private static Equipment equipment(Long id) {
+        Equipment e = new Equipment();
+        e.id = id;
+        e.name = "Mahindra 575 DI";
+        e.category = "Tractor";
+        e.description = "Reliable 45 HP tractor suitable for plowing and hauling.";
+        e.pricePerDay = 3500.0;
+        e.pricePerHour = 500.0;
+        e.operatorId = 2L;
+        e.operatorName = "Ramesh Kumar";
+        e.image = "https://assets.tractorjunction.com/tractor-junction/assets/images/tractor-images/tractor-image-0-1731604906.webp";
+        e.rating = 4.6;
+        e.totalBookings = 37;
+        e.version = 12L;
+        e.maintenanceStatus = "good";
+        e.qrCode = "EQ1:k7Qz:" + id + ":Xb3d9F0aL2mN8pQ1";
+        e.location = new Equipment.Location();
+        e.location.lat = 10.5276;
+        e.location.lng = 76.2144;
+        e.location.address = "Khera Village, District";
+        e.specifications.put("horsepower", "45 HP");
+        e.specifications.put("fuel", "Diesel");
+        e.specifications.put("drive", "2WD");
+        return e;
+    }
+
+    private static Booking booking() {
+        LocalDateTime start = LocalDateTime.of(2024, 6, 1, 9, 30);
+        Booking b = new Booking();
+        b.id = 88L;
+        b.equipmentId = 1042L;
+        b.equipmentName = "Mahindra 575 DI";
+        b.userId = 3L;
+        b.userName = "Suresh Patel";
+        b.operatorId = 2L;
+        b.operatorName = "Ramesh Kumar";
+        b.startDate = start.toLocalDate();
+        b.startTime = start.toLocalTime();
+        b.endDate = LocalDate.of(2024, 6, 1);
+        b.endTime = LocalTime.of(13, 30);
+        b.startAt = start;
+        b.endAt = start.plusHours(4);
+        b.duration = 4;
+        b.durationType = "hours";
+        b.totalAmount = 2000.0;
+        b.status = "confirmed";
+        b.paymentStatus = "paid";
+        b.checkOutTime = start;
+        b.qrCodeScanned = true;
+        b.createdAt = start.minusMinutes(5);
+        return b;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.backend.bench;
+
+import com.example.backend.security.JwtAuthenticationFilter;
+import com.example.backend.security.JwtKeyRing;
+import com.example.backend.security.JwtUtil;
+import com.example.backend.security.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Token issue and the per-request authentication path.
+ *
+ * parse is a full signature check; the filter benchmarks run JwtAuthenticationFilter
+ * end to end, once with a token already in the verified cache and once cycling
+ * through more distinct tokens than the cache holds, so every request parses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    // More than JwtUtil keeps verified, so cycling through them always misses
+    private static final int UNCACHED_TOKENS = 12_000;
+
+    private static final FilterChain NO_OP = (request, response) -> {};
+
+    private Path dir;
+    private JwtUtil jwtUtil;
+    private JwtAuthenticationFilter filter;
+    private String token;
+    private String[] uncached;
+    private int next;
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bookings");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("jwt-keys");
+        JwtKeyRing keyRing = new JwtKeyRing(dir.resolve("jwt-keyring.properties").toString(), 168, 300_000);
+        keyRing.init();
+        jwtUtil = new JwtUtil(keyRing, new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(jwtUtil);
+
+        token = jwtUtil.generateToken(1042L, "farmer@village.com", "user");
+        uncached = new String[UNCACHED_TOKENS];
+        for (int i = 0; i < uncached.length; i++) {
+            uncached[i] = jwtUtil.generateToken((long) i, "user" + i + "@village.com", "user");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(1042L, "farmer@village.com", "user");
+    }
+
+    @Benchmark
+    public Long parse() {
+        return jwtUtil.extractUserId(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyCached() {
+        return jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public Object filterCached() throws ServletException, IOException {
+        return authenticate(token);
+    }
+
+    @Benchmark
+    public Object filterUncached() throws ServletException, IOException {
+        String t = uncached[next];
+        next = (next + 1) % uncached.length;
+        return authenticate(t);
+    }
+
+    private Object authenticate(String jwt) throws ServletException, IOException {
+        request.addHeader("Authorization", "Bearer " + jwt);
+        try {
+            filter.doFilter(request, response, NO_OP);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            request.removeHeader("Authorization");
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
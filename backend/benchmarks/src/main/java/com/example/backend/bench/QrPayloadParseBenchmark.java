@@ -0,0 +1,69 @@
+package com.example.backend.bench;
+
+import com.example.backend.util.LegacyQrParsers;
+import com.example.backend.util.QrPayloadCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legacy split-based QR parsing against QrPayloadCodec, one payload format per run.
+ * Run with -prof gc to compare allocation per operation as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QrPayloadParseBenchmark {
+
+    @Param({"rich", "simple", "legacy", "equipment", "booking", "invalid"})
+    public String format;
+
+    private String payload;
+
+    @Setup
+    public void setup() {
+        payload = switch (format) {
+            case "rich" -> "EQ-1042-7F3A9C21|Mahindra 575 DI|Khera Village, District|AVAILABLE";
+            case "simple" -> "EQ-1042-7F3A9C21";
+            case "legacy" -> "QR_1042";
+            case "equipment" -> "EQUIPMENT:1042:Mahindra 575 DI:7f3a9c21";
+            case "booking" -> "BOOKING:88:EQUIPMENT:1042:ACTION:CHECK_IN:TIME:2024-06-01T09:30:15.123";
+            default -> "https://example.com/not-one-of-ours";
+        };
+    }
+
+    @Benchmark
+    public Long legacyScanEquipmentId() {
+        return LegacyQrParsers.parseEquipmentId(payload);
+    }
+
+    @Benchmark
+    public Long codecEquipmentId() {
+        return QrPayloadCodec.equipmentId(payload);
+    }
+
+    @Benchmark
+    public Object legacyServiceValidate() {
+        return payload.startsWith("BOOKING:")
+                ? LegacyQrParsers.validateBookingQRCode(payload)
+                : LegacyQrParsers.validateEquipmentQRCode(payload);
+    }
+
+    @Benchmark
+    public Object codecParse() {
+        return QrPayloadCodec.parse(payload);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.backend.bench;
+
+import com.example.backend.service.QRCodeService;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QR image rendering by size and error correction level.
+ *
+ * renderPng is what QRCodeService.generateQRCodeImage pays on a render cache miss
+ * (encode, then PNG); encode is the ZXing part alone and cachedPng a cache hit.
+ * The payload has the length of a signed rich equipment code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QrRenderBenchmark {
+
+    private static final String PAYLOAD = "EQ1:k7Qz:1042:Xb3d9F0aL2mN8pQ1|Mahindra 575 DI|Khera Village, District|AVAILABLE";
+
+    @Param({"150", "300", "600"})
+    public int size;
+
+    @Param({"L", "M", "Q", "H"})
+    public String errorCorrection;
+
+    private QRCodeService service;
+    private ErrorCorrectionLevel level;
+
+    @Setup
+    public void setup() throws WriterException, IOException {
+        // Rendering never touches the token service
+        service = new QRCodeService(null, new SimpleMeterRegistry());
+        level = ErrorCorrectionLevel.valueOf(errorCorrection);
+        service.renderPng(PAYLOAD, size, level);
+    }
+
+    @Benchmark
+    public BufferedImage encode() throws WriterException {
+        return service.renderImage(PAYLOAD, size, level);
+    }
+
+    @Benchmark
+    public byte[] renderPng() throws WriterException, IOException {
+        BufferedImage image = service.renderImage(PAYLOAD, size, level);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "PNG", out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] cachedPng() throws WriterException, IOException {
+        return service.renderPng(PAYLOAD, size, level);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.backend.bench;
+
+import com.example.backend.service.QrTokenService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of turning away a scan: one HMAC for signed tokens, against which the
+ * previous flow spent a database round trip on every scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QrTokenVerifyBenchmark {
+
+    private Path dir;
+    private QrTokenService tokens;
+    private String genuine;
+    private String forged;
+    private String unknownKey;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("qr-keys");
+        tokens = new QrTokenService(dir.resolve("qr-keys.properties").toString(), false);
+        tokens.init();
+        genuine = tokens.issue(1042);
+        forged = genuine.substring(0, genuine.length() - 1) + (genuine.endsWith("A") ? "B" : "A");
+        unknownKey = "EQ1:ZZZZ:1042:" + genuine.substring(genuine.length() - 16);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Long verifyGenuine() {
+        return tokens.verify(genuine);
+    }
+
+    @Benchmark
+    public Long verifyForged() {
+        return tokens.verify(forged);
+    }
+
+    @Benchmark
+    public Long verifyUnknownKey() {
+        return tokens.verify(unknownKey);
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * One-off migration of the bookings date/time columns from text to typed columns.
+ *
+ * Runs before Hibernate starts (ddl-auto=update never changes a column type).
+ * Each text column is copied into a typed column with lenient parsing, renamed
+ * to {name}_text, and the typed column renamed into its place. Unparseable
+ * values become null in the typed column but stay readable in {name}_text, so
+ * they can be fixed by hand; Hibernate ignores the extra columns.
+ * start_at/end_at are then backfilled for rows that don't have them yet.
+ * Every step checks the current schema first, so an interrupted run just resumes.
+ */
+@Component("bookingSchemaMigration")
+public class BookingSchemaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingSchemaMigration.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    /** Makes the JPA EntityManagerFactory wait for the migration */
+    @Component
+    static class EntityManagerFactoryDependsOnMigration extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependsOnMigration() {
+            super("bookingSchemaMigration");
+        }
+    }
+
+    private record TypedColumn(String name, String sqlType, Function<String, Object> parser) {}
+
+    private static final List<TypedColumn> COLUMNS = List.of(
+            new TypedColumn("START_DATE", "DATE", BookingSchemaMigration::parseDate),
+            new TypedColumn("END_DATE", "DATE", BookingSchemaMigration::parseDate),
+            new TypedColumn("START_TIME", "TIME", BookingSchemaMigration::parseTime),
+            new TypedColumn("END_TIME", "TIME", BookingSchemaMigration::parseTime),
+            new TypedColumn("CHECK_IN_TIME", "TIMESTAMP(6)", BookingSchemaMigration::parseDateTime),
+            new TypedColumn("CHECK_OUT_TIME", "TIMESTAMP(6)", BookingSchemaMigration::parseDateTime)
+    );
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbc;
+
+    public BookingSchemaMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void migrate() throws SQLException {
+        Map<String, Integer> columns = columnTypes("BOOKINGS");
+        if (columns.isEmpty()) return; // fresh database, Hibernate creates the typed table
+
+        for (TypedColumn column : COLUMNS) {
+            String typed = column.name() + "_TYPED";
+            if (!columns.containsKey(column.name()) && columns.containsKey(typed)) {
+                // Interrupted between drop and rename
+                rename(typed, column.name());
+            } else if (isText(columns.get(column.name()))) {
+                convert(column, columns.containsKey(typed));
+            }
+        }
+
+        columns = columnTypes("BOOKINGS");
+        if (!columns.containsKey("START_AT")) jdbc.execute("ALTER TABLE bookings ADD COLUMN start_at TIMESTAMP(6)");
+        if (!columns.containsKey("END_AT")) jdbc.execute("ALTER TABLE bookings ADD COLUMN end_at TIMESTAMP(6)");
+        backfillRange();
+    }
+
+    private void convert(TypedColumn column, boolean typedExists) {
+        String name = column.name().toLowerCase(Locale.ROOT);
+        String typed = name + "_typed";
+        if (!typedExists) {
+            jdbc.execute("ALTER TABLE bookings ADD COLUMN " + typed + " " + column.sqlType());
+        }
+
+        List<Object[]> updates = new ArrayList<>();
+        int[] unparseable = {0};
+        jdbc.query("SELECT id, " + name + " FROM bookings WHERE " + name + " IS NOT NULL AND " + typed + " IS NULL", rs -> {
+            Object value = column.parser().apply(rs.getString(2).trim());
+            if (value == null) {
+                unparseable[0]++;
+                return;
+            }
+            updates.add(new Object[]{value, rs.getLong(1)});
+        });
+        for (int from = 0; from < updates.size(); from += BATCH_SIZE) {
+            jdbc.batchUpdate("UPDATE bookings SET " + typed + " = ? WHERE id = ?",
+                    updates.subList(from, Math.min(from + BATCH_SIZE, updates.size())));
+        }
+
+        // The original text stays behind for rows whose values couldn't be parsed
+        rename(name, name + "_text");
+        rename(typed, name);
+        log.info("Migrated bookings.{} to {} ({} rows, {} unparseable set to null, originals kept in {}_text)",
+                name, column.sqlType(), updates.size(), unparseable[0], name);
+    }
+
+    private void rename(String from, String to) {
+        jdbc.execute("ALTER TABLE bookings ALTER COLUMN " + from.toLowerCase(Locale.ROOT) + " RENAME TO " + to.toLowerCase(Locale.ROOT));
+    }
+
+    private void backfillRange() {
+        List<Object[]> updates = new ArrayList<>();
+        jdbc.query("SELECT id, start_date, start_time, end_date, end_time FROM bookings WHERE start_at IS NULL OR end_at IS NULL", rs -> {
+            LocalDate startDate = rs.getObject(2, LocalDate.class);
+            LocalTime startTime = rs.getObject(3, LocalTime.class);
+            LocalDate endDate = rs.getObject(4, LocalDate.class);
+            LocalTime endTime = rs.getObject(5, LocalTime.class);
+            // Same rules as Booking.start()/end()
+            LocalDateTime start = startDate == null ? null : startDate.atTime(startTime != null ? startTime : LocalTime.MIDNIGHT);
+            LocalDateTime end = endDate == null ? null : endTime != null ? endDate.atTime(endTime) : endDate.plusDays(1).atStartOfDay();
+            if (start != null || end != null) {
+                updates.add(new Object[]{
+                        start != null ? Timestamp.valueOf(start) : null,
+                        end != null ? Timestamp.valueOf(end) : null,
+                        rs.getLong(1)});
+            }
+        });
+        for (int from = 0; from < updates.size(); from += BATCH_SIZE) {
+            jdbc.batchUpdate("UPDATE bookings SET start_at = ?, end_at = ? WHERE id = ?",
+                    updates.subList(from, Math.min(from + BATCH_SIZE, updates.size())));
+        }
+        if (!updates.isEmpty()) {
+            log.info("Backfilled start_at/end_at for {} booking(s)", updates.size());
+        }
+    }
+
+    private Map<String, Integer> columnTypes(String table) throws SQLException {
+        Map<String, Integer> types = new HashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData meta = connection.getMetaData();
+            try (ResultSet rs = meta.getColumns(null, null, table, null)) {
+                while (rs.next()) {
+                    types.put(rs.getString("COLUMN_NAME").toUpperCase(Locale.ROOT), rs.getInt("DATA_TYPE"));
+                }
+            }
+        }
+        return types;
+    }
+
+    private static boolean isText(Integer sqlType) {
+        return sqlType != null && (sqlType == Types.VARCHAR || sqlType == Types.CHAR
+                || sqlType == Types.LONGVARCHAR || sqlType == Types.NVARCHAR);
+    }
+
+    private static Object parseDate(String value) {
+        try {
+            // Some rows were written as full date-times
+            int t = value.indexOf('T');
+            return java.sql.Date.valueOf(LocalDate.parse(t > 0 ? value.substring(0, t) : value));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Object parseTime(String value) {
+        try {
+            return java.sql.Time.valueOf(LocalTime.parse(value));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Object parseDateTime(String value) {
+        try {
+            return Timestamp.valueOf(value.indexOf('T') > 0 ? LocalDateTime.parse(value) : LocalDate.parse(value).atStartOfDay());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
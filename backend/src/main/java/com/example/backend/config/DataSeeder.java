@@ -2,6 +2,8 @@ package com.example.backend.config;
 
 import com.example.backend.model.User;
 import com.example.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,6 +14,8 @@ import com.example.backend.repository.EquipmentRepository;
 @Configuration
 public class DataSeeder {
 
+    private static final Logger log = LoggerFactory.getLogger(DataSeeder.class);
+
     @Bean
     CommandLineRunner initDatabase(UserRepository userRepository, PasswordEncoder passwordEncoder) {
         return args -> {
@@ -24,9 +28,9 @@ public class DataSeeder {
                 admin.role = "ADMIN";
                 admin.password = passwordEncoder.encode("password");
                 userRepository.save(admin);
-                System.out.println("✅ Admin user created: admin@village.com / password");
+                log.info("Admin user created: admin@village.com / password");
             } else {
-                System.out.println("ℹ️  Admin user already exists");
+                log.info("Admin user already exists");
             }
             
             // Create Operator user
@@ -40,9 +44,9 @@ public class DataSeeder {
                 operator.village = "Khera";
                 operator.password = passwordEncoder.encode("password");
                 userRepository.save(operator);
-                System.out.println("✅ Operator user created: operator@village.com / password");
+                log.info("Operator user created: operator@village.com / password");
             } else {
-                System.out.println("ℹ️  Operator user already exists");
+                log.info("Operator user already exists");
             }
             
             // Create regular User
@@ -56,9 +60,9 @@ public class DataSeeder {
                 user.village = "Khera";
                 user.password = passwordEncoder.encode("password");
                 userRepository.save(user);
-                System.out.println("✅ Regular user created: user@village.com / password");
+                log.info("Regular user created: user@village.com / password");
             } else {
-                System.out.println("ℹ️  Regular user already exists");
+                log.info("Regular user already exists");
             }
 
             // Seed a few equipment items if table is empty
@@ -66,7 +70,7 @@ public class DataSeeder {
             try {
                 EquipmentRepository equipmentRepository = com.example.backend.config.ApplicationContextProvider.getBean(EquipmentRepository.class);
                 if (equipmentRepository.count() == 0) {
-                    System.out.println("✅ Seeding initial equipment data...");
+                    log.info("Seeding initial equipment data");
                     Equipment e1 = new Equipment();
                     e1.name = "Mahindra 575 DI";
                     e1.category = "Tractor";
@@ -94,7 +98,7 @@ public class DataSeeder {
                     e2.operatorId = 2L;
                     equipmentRepository.save(e2);
                 } else {
-                    System.out.println("ℹ️ Equipment table already has data");
+                    log.info("Equipment table already has data");
                 }
             } catch (Exception ex) {
                 // ApplicationContextProvider might not be available at this stage in some environments
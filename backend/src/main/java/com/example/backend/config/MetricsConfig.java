@@ -0,0 +1,44 @@
+package com.example.backend.config;
+
+import com.example.backend.service.NotificationDispatcher;
+import com.example.backend.service.NotificationStreamService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Meters over state the services already track, read when scraped.
+ * HTTP, repository, connection pool and JVM meters come from Spring Boot.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    MeterBinder notificationDispatchMetrics(NotificationDispatcher dispatcher) {
+        return registry -> {
+            Gauge.builder("notifications.dispatch.queued", dispatcher, d -> d.stats().queued())
+                .description("Notifications waiting to be written")
+                .register(registry);
+            Gauge.builder("notifications.dispatch.capacity", dispatcher, d -> d.stats().capacity())
+                .register(registry);
+            FunctionCounter.builder("notifications.dispatch.dropped", dispatcher, d -> d.stats().dropped())
+                .description("Notifications dropped because the queue was full")
+                .register(registry);
+            FunctionCounter.builder("notifications.dispatch.inserted", dispatcher, d -> d.stats().inserted())
+                .register(registry);
+            FunctionCounter.builder("notifications.dispatch.failed", dispatcher, d -> d.stats().failed())
+                .register(registry);
+            FunctionCounter.builder("notifications.dispatch.batches", dispatcher, d -> d.stats().batches())
+                .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder notificationStreamMetrics(NotificationStreamService streams) {
+        return registry -> Gauge.builder("notifications.streams.open", streams, NotificationStreamService::connectionCount)
+            .description("Open server-sent event streams")
+            .register(registry);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the lower-case search columns for users saved before they existed.
+ * New and updated users get them from User's entity callbacks.
+ */
+@Component
+public class UserSearchBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchBackfill.class);
+
+    private static final String BACKFILL_SQL =
+            "UPDATE users SET name_search = LOWER(name), email_search = LOWER(email) " +
+            "WHERE email_search IS NULL OR (name_search IS NULL AND name IS NOT NULL)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserSearchBackfill(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int updated = jdbcTemplate.update(BACKFILL_SQL);
+        if (updated > 0) log.info("Filled search columns for {} user(s)", updated);
+    }
+}
@@ -1,12 +1,17 @@
 package com.example.backend.controller;
 
-import com.example.backend.model.User;
+import com.example.backend.dto.UserSummary;
 import com.example.backend.repository.UserRepository;
 import com.example.backend.repository.EquipmentRepository;
 import com.example.backend.repository.BookingRepository;
+import com.example.backend.service.AdminMetricsService;
+import com.example.backend.service.NotificationDispatcher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,25 +22,84 @@ public class AdminController {
     private final UserRepository userRepository;
     private final EquipmentRepository equipmentRepository;
     private final BookingRepository bookingRepository;
+    private final NotificationDispatcher notificationDispatcher;
+    private final AdminMetricsService metrics;
 
-    public AdminController(UserRepository userRepository, EquipmentRepository equipmentRepository, BookingRepository bookingRepository) { 
+    private static final int DEFAULT_USER_PAGE = 50;
+    private static final int MAX_USER_PAGE = 100;
+
+    public AdminController(UserRepository userRepository, EquipmentRepository equipmentRepository, BookingRepository bookingRepository,
+                           NotificationDispatcher notificationDispatcher, AdminMetricsService metrics) { 
         this.userRepository = userRepository;
         this.equipmentRepository = equipmentRepository;
         this.bookingRepository = bookingRepository;
+        this.notificationDispatcher = notificationDispatcher;
+        this.metrics = metrics;
     }
 
+    /**
+     * Keyset page of users matching the optional filters, oldest first. q matches the
+     * start of the name or email. Pass the returned nextCursor as "after" for the next page.
+     */
     @GetMapping("/users")
-    public ResponseEntity<List<User>> getUsers(@RequestParam(required = false) String role) {
-        return ResponseEntity.ok(userRepository.findAll());
+    public ResponseEntity<?> getUsers(@RequestParam(required = false) String role,
+                                      @RequestParam(required = false) String village,
+                                      @RequestParam(required = false) Boolean active,
+                                      @RequestParam(required = false) String q,
+                                      @RequestParam(required = false) Long after,
+                                      @RequestParam(required = false) Integer limit) {
+        String roleFilter = (role != null && !role.isBlank()) ? role : null;
+        String villageFilter = (village != null && !village.isBlank()) ? village : null;
+        String search = (q != null && !q.isBlank()) ? q.trim() : null;
+
+        int pageSize = Math.max(1, Math.min(limit != null ? limit : DEFAULT_USER_PAGE, MAX_USER_PAGE));
+        // Fetch one extra row to know whether another page exists
+        List<UserSummary> rows = userRepository.findAdminPage(after, roleFilter, villageFilter, active, search, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<UserSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", items);
+        response.put("hasMore", hasMore);
+        response.put("nextCursor", hasMore ? items.get(items.size() - 1).id() : null);
+        return ResponseEntity.ok(response);
     }
 
+    /**
+     * Totals plus daily bookings, revenue, sign-ups and category utilization between
+     * startDate and endDate (inclusive, yyyy-MM-dd). Both dates are optional.
+     */
     @GetMapping("/analytics")
     public ResponseEntity<?> analytics(@RequestParam(required = false) String startDate, @RequestParam(required = false) String endDate) {
-        return ResponseEntity.ok(Map.of(
-            "totalUsers", userRepository.count(), 
-            "totalEquipment", equipmentRepository.count(),
-            "totalBookings", bookingRepository.count()
-        ));
+        LocalDate from, to;
+        try {
+            from = startDate != null && !startDate.isBlank() ? LocalDate.parse(startDate) : null;
+            to = endDate != null && !endDate.isBlank() ? LocalDate.parse(endDate) : null;
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Dates must be yyyy-MM-dd"));
+        }
+        if (from != null && to != null && to.isBefore(from)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "endDate is before startDate"));
+        }
+
+        AdminMetricsService.Report report = metrics.report(from, to);
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("totalUsers", userRepository.count());
+        resp.put("totalEquipment", equipmentRepository.count());
+        resp.put("totalBookings", metrics.totalBookings());
+        resp.put("startDate", report.startDate());
+        resp.put("endDate", report.endDate());
+        resp.put("bookingsCreated", report.bookingsCreated());
+        resp.put("bookingsByStatus", report.bookingsByStatus());
+        resp.put("grossRevenue", report.grossRevenue());
+        resp.put("refundAmount", report.refundAmount());
+        resp.put("netRevenue", report.netRevenue());
+        resp.put("paymentsCount", report.paymentsCount());
+        resp.put("refundsCount", report.refundsCount());
+        resp.put("newUsers", report.newUsers());
+        resp.put("utilization", report.utilization());
+        resp.put("days", report.days());
+        return ResponseEntity.ok(resp);
     }
     
     @GetMapping("/analytics/dashboard")
@@ -43,9 +107,19 @@ public class AdminController {
         return ResponseEntity.ok(Map.of(
             "totalUsers", userRepository.count(), 
             "totalEquipment", equipmentRepository.count(),
-            "totalBookings", bookingRepository.count(),
-            "activeBookings", bookingRepository.findByStatus("in-progress").size()
+            "totalBookings", metrics.totalBookings(),
+            "activeBookings", metrics.bookingsWithStatus(AdminMetricsService.ACTIVE_STATUS),
+            "bookingsByStatus", metrics.bookingsByStatus(),
+            "today", metrics.today()
         ));
     }
 
+    /**
+     * Notification pipeline backlog and counters; a growing queue or dropped count means writes can't keep up
+     */
+    @GetMapping("/notifications/pipeline")
+    public ResponseEntity<?> notificationPipeline() {
+        return ResponseEntity.ok(notificationDispatcher.stats());
+    }
+
 }
@@ -3,6 +3,8 @@ package com.example.backend.controller;
 import com.example.backend.model.User;
 import com.example.backend.repository.UserRepository;
 import com.example.backend.security.JwtUtil;
+import com.example.backend.service.UserRegisteredEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -18,11 +20,14 @@ public class AuthController {
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher events;
 
-    public AuthController(UserRepository userRepository, JwtUtil jwtUtil, PasswordEncoder passwordEncoder) {
+    public AuthController(UserRepository userRepository, JwtUtil jwtUtil, PasswordEncoder passwordEncoder,
+                          ApplicationEventPublisher events) {
         this.userRepository = userRepository;
         this.jwtUtil = jwtUtil;
         this.passwordEncoder = passwordEncoder;
+        this.events = events;
     }
 
     @PostMapping("/register")
@@ -47,6 +52,7 @@ public class AuthController {
         u.password = passwordEncoder.encode(password);
         
         u = userRepository.save(u);
+        events.publishEvent(new UserRegisteredEvent(u));
 
         // Generate JWT token
         String token = jwtUtil.generateToken(u.id, u.email, u.role);
@@ -2,10 +2,20 @@ package com.example.backend.controller;
 
 import com.example.backend.model.Booking;
 import com.example.backend.repository.BookingRepository;
+import com.example.backend.service.BookingAvailabilityIndex;
+import com.example.backend.service.BookingChangedEvent;
+import com.example.backend.service.EquipmentCheckoutService;
+import com.example.backend.service.PricingService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -14,9 +24,26 @@ import java.util.Map;
 public class BookingsController {
 
     private final BookingRepository bookingRepository;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher events;
+    private final PricingService pricingService;
+    private final EquipmentCheckoutService checkoutService;
 
-    public BookingsController(BookingRepository bookingRepository) {
+    // Enough for a comparison screen; keeps a single request bounded
+    private static final int MAX_QUOTES = 200;
+    private static final int MAX_AVAILABILITY_CHECKS = 200;
+
+    // Longest rental we quote; a season is well under a year
+    private static final Duration MAX_QUOTE_LENGTH = Duration.ofDays(366);
+
+    public BookingsController(BookingRepository bookingRepository, BookingAvailabilityIndex availabilityIndex,
+                              ApplicationEventPublisher events, PricingService pricingService,
+                              EquipmentCheckoutService checkoutService) {
         this.bookingRepository = bookingRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.events = events;
+        this.pricingService = pricingService;
+        this.checkoutService = checkoutService;
     }
     
     private Long getCurrentUserId() {
@@ -48,9 +75,40 @@ public class BookingsController {
     }
 
     @PostMapping
-    public ResponseEntity<Booking> create(@RequestBody Booking booking) {
+    public ResponseEntity<?> create(@RequestBody Booking booking) {
         booking.userId = getCurrentUserId();
-        Booking saved = bookingRepository.save(booking);
+
+        LocalDateTime start = booking.start();
+        LocalDateTime end = booking.end();
+        if (booking.equipmentId == null || start == null || end == null) {
+            Booking saved = bookingRepository.save(booking);
+            events.publishEvent(BookingChangedEvent.of(saved));
+            return ResponseEntity.ok(saved);
+        }
+
+        // The index turns away most clashes without a lock; the reserve decides the races
+        List<Long> conflicts = availabilityIndex.conflicts(booking.equipmentId, start, end, null);
+        Booking saved = null;
+        if (conflicts.isEmpty()) {
+            try {
+                saved = checkoutService.reserve(booking);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(404).body(Map.of("message", e.getMessage()));
+            }
+            if (saved == null) {
+                conflicts = bookingRepository.findOverlapping(booking.equipmentId,
+                        BookingAvailabilityIndex.BLOCKING_STATUSES, start, end);
+            }
+        }
+        if (saved == null) {
+            return ResponseEntity.status(409).body(Map.of(
+                "message", "Equipment is already booked for this time",
+                "conflictingBookingIds", conflicts,
+                "nextAvailableStart", availabilityIndex.nextFreeSlot(booking.equipmentId, start, Duration.between(start, end))
+            ));
+        }
+
+        events.publishEvent(BookingChangedEvent.of(saved));
         return ResponseEntity.ok(saved);
     }
 
@@ -60,6 +118,7 @@ public class BookingsController {
         if (b == null) return ResponseEntity.status(404).body(Map.of("message", "Not found"));
         b.status = body.getOrDefault("status", b.status);
         bookingRepository.save(b);
+        events.publishEvent(BookingChangedEvent.of(b));
         return ResponseEntity.ok(b);
     }
 
@@ -69,12 +128,71 @@ public class BookingsController {
         if (b == null) return ResponseEntity.status(404).body(Map.of("message", "Not found"));
         b.status = "cancelled";
         bookingRepository.save(b);
+        events.publishEvent(BookingChangedEvent.of(b));
         return ResponseEntity.ok(b);
     }
 
+    /**
+     * Check whether equipment is free for a time range.
+     * Accepts either a single "equipmentId" or a batch of "equipmentIds".
+     */
     @PostMapping("/check-availability")
     public ResponseEntity<?> checkAvailability(@RequestBody Map<String, Object> body) {
-        return ResponseEntity.ok(Map.of("available", true));
+        LocalDateTime start = BookingAvailabilityIndex.parse(asString(body.get("startDate")), asString(body.get("startTime")), false);
+        LocalDateTime end = BookingAvailabilityIndex.parse(asString(body.get("endDate")), asString(body.get("endTime")), true);
+        if (start == null || end == null || !end.isAfter(start)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "A valid startDate and endDate are required"));
+        }
+        Duration length = Duration.between(start, end);
+
+        if (body.get("equipmentIds") instanceof List<?> rawIds) {
+            if (rawIds.size() > MAX_AVAILABILITY_CHECKS) {
+                return ResponseEntity.badRequest().body(Map.of("message", "At most " + MAX_AVAILABILITY_CHECKS + " equipmentIds per request"));
+            }
+            List<Long> ids = new ArrayList<>(rawIds.size());
+            for (Object id : rawIds) {
+                Long parsed = asId(id);
+                if (parsed == null) {
+                    return ResponseEntity.badRequest().body(Map.of("message", "Invalid equipment id: " + id));
+                }
+                ids.add(parsed);
+            }
+            Map<Long, Object> results = new LinkedHashMap<>();
+            availabilityIndex.areFree(ids, start, end).forEach((id, free) -> {
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("available", free);
+                entry.put("nextAvailableStart", free ? start : availabilityIndex.nextFreeSlot(id, start, length));
+                results.put(id, entry);
+            });
+            return ResponseEntity.ok(Map.of("results", results));
+        }
+
+        Long equipmentId = asId(body.get("equipmentId"));
+        if (equipmentId == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "A valid equipmentId is required"));
+        }
+        List<Long> conflicts = availabilityIndex.conflicts(equipmentId, start, end, null);
+        if (conflicts.isEmpty()) {
+            return ResponseEntity.ok(Map.of("available", true));
+        }
+        return ResponseEntity.ok(Map.of(
+            "available", false,
+            "conflictingBookings", bookingRepository.findAllById(conflicts),
+            "nextAvailableStart", availabilityIndex.nextFreeSlot(equipmentId, start, length)
+        ));
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static Long asId(Object value) {
+        if (value == null) return null;
+        try {
+            return Long.valueOf(value.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     @PostMapping("/{id}/check-in")
@@ -83,6 +201,7 @@ public class BookingsController {
         if (b == null) return ResponseEntity.status(404).body(Map.of("message", "Not found"));
         b.status = "in-progress";
         bookingRepository.save(b);
+        events.publishEvent(BookingChangedEvent.of(b));
         return ResponseEntity.ok(b);
     }
 
@@ -92,11 +211,90 @@ public class BookingsController {
         if (b == null) return ResponseEntity.status(404).body(Map.of("message", "Not found"));
         b.status = "completed";
         bookingRepository.save(b);
+        events.publishEvent(BookingChangedEvent.of(b));
         return ResponseEntity.ok(b);
     }
 
+    /**
+     * Price one booking. Takes equipmentId, durationType ("hours" or "days") and either
+     * startDate/endDate (with optional startTime/endTime) or a duration in durationType units.
+     */
     @PostMapping("/calculate-cost")
     public ResponseEntity<?> calculateCost(@RequestBody Map<String, Object> body) {
-        return ResponseEntity.ok(Map.of("totalAmount", 100.0, "duration", 1));
+        PricingService.QuoteRequest request = quoteRequest(body);
+        if (request == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "equipmentId and a valid duration or date range are required"));
+        }
+        PricingService.Quote quote = pricingService.quote(List.of(request)).get(0);
+        if (quote == null) return ResponseEntity.status(404).body(Map.of("message", "Equipment not found"));
+        return ResponseEntity.ok(quoteBody(quote));
+    }
+
+    /**
+     * Price many equipment/duration pairs at once, e.g. for the comparison screen.
+     * Body: {"items": [ same fields as /calculate-cost, ... ]}; quotes come back in item order.
+     */
+    @PostMapping("/quotes")
+    public ResponseEntity<?> quotes(@RequestBody Map<String, Object> body) {
+        if (!(body.get("items") instanceof List<?> items) || items.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "items are required"));
+        }
+        if (items.size() > MAX_QUOTES) {
+            return ResponseEntity.badRequest().body(Map.of("message", "At most " + MAX_QUOTES + " items per request"));
+        }
+
+        List<PricingService.QuoteRequest> requests = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            PricingService.QuoteRequest request = items.get(i) instanceof Map<?, ?> item ? quoteRequest(item) : null;
+            if (request == null) {
+                return ResponseEntity.badRequest().body(Map.of("message", "Item " + i + " needs equipmentId and a valid duration or date range"));
+            }
+            requests.add(request);
+        }
+
+        List<PricingService.Quote> quotes = pricingService.quote(requests);
+        List<Map<String, Object>> results = new ArrayList<>(quotes.size());
+        for (int i = 0; i < quotes.size(); i++) {
+            PricingService.Quote quote = quotes.get(i);
+            results.add(quote != null ? quoteBody(quote)
+                    : Map.of("equipmentId", requests.get(i).equipmentId(), "message", "Equipment not found"));
+        }
+        return ResponseEntity.ok(Map.of("quotes", results));
+    }
+
+    private static PricingService.QuoteRequest quoteRequest(Map<?, ?> body) {
+        try {
+            if (body.get("equipmentId") == null) return null;
+            Long equipmentId = Long.valueOf(body.get("equipmentId").toString());
+            String durationType = PricingService.HOURS.equals(body.get("durationType"))
+                    ? PricingService.HOURS : PricingService.DAYS;
+
+            Duration length;
+            if (body.get("duration") != null) {
+                long units = Long.parseLong(body.get("duration").toString());
+                if (units <= 0) return null;
+                length = PricingService.HOURS.equals(durationType) ? Duration.ofHours(units) : Duration.ofDays(units);
+            } else {
+                LocalDateTime start = BookingAvailabilityIndex.parse(asString(body.get("startDate")), asString(body.get("startTime")), false);
+                LocalDateTime end = BookingAvailabilityIndex.parse(asString(body.get("endDate")), asString(body.get("endTime")), true);
+                if (start == null || end == null || !end.isAfter(start)) return null;
+                length = Duration.between(start, end);
+            }
+            if (length.compareTo(MAX_QUOTE_LENGTH) > 0) return null;
+            return new PricingService.QuoteRequest(equipmentId, durationType, length);
+        } catch (NumberFormatException | ArithmeticException e) {
+            // Ids and units that aren't numbers, or durations too long to represent
+            return null;
+        }
+    }
+
+    private static Map<String, Object> quoteBody(PricingService.Quote quote) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("equipmentId", quote.equipmentId());
+        body.put("durationType", quote.durationType());
+        body.put("duration", quote.duration());
+        body.put("unitPrice", quote.unitPrice());
+        body.put("totalAmount", quote.totalAmount());
+        return body;
     }
 }
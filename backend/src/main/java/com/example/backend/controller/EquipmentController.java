@@ -1,14 +1,22 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.EquipmentSummary;
 import com.example.backend.model.Equipment;
 import com.example.backend.repository.EquipmentRepository;
+import com.example.backend.service.AdminMetricsService;
+import com.example.backend.service.EquipmentGeoIndex;
+import com.example.backend.service.PricingService;
 import com.example.backend.service.QRCodeService;
 import com.example.backend.util.EquipmentImageMapper;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/equipment")
@@ -16,10 +24,22 @@ public class EquipmentController {
 
     private final EquipmentRepository equipmentRepository;
     private final QRCodeService qrCodeService;
+    private final EquipmentGeoIndex geoIndex;
+    private final PricingService pricingService;
+    private final AdminMetricsService adminMetrics;
 
-    public EquipmentController(EquipmentRepository equipmentRepository, QRCodeService qrCodeService) {
+    // Bounds on map queries; a 5 degree box is about 100 x 100 index cells
+    private static final double MAX_RADIUS_KM = 200.0;
+    private static final double MAX_BOX_DEGREES = 5.0;
+
+    public EquipmentController(EquipmentRepository equipmentRepository, QRCodeService qrCodeService,
+                               EquipmentGeoIndex geoIndex, PricingService pricingService,
+                               AdminMetricsService adminMetrics) {
         this.equipmentRepository = equipmentRepository;
         this.qrCodeService = qrCodeService;
+        this.geoIndex = geoIndex;
+        this.pricingService = pricingService;
+        this.adminMetrics = adminMetrics;
     }
 
     @GetMapping
@@ -30,6 +50,33 @@ public class EquipmentController {
         return ResponseEntity.ok(equipmentRepository.findAll());
     }
 
+    /**
+     * Keyset-paginated catalog. Pass the returned nextCursor as "after" to fetch the next page.
+     */
+    @GetMapping("/catalog")
+    public ResponseEntity<?> catalog(@RequestParam(required = false) Long after,
+                                     @RequestParam(required = false, defaultValue = "20") int limit,
+                                     @RequestParam(required = false) String category,
+                                     @RequestParam(required = false) Boolean available,
+                                     @RequestParam(required = false) Long operatorId,
+                                     @RequestParam(required = false) Double minPrice,
+                                     @RequestParam(required = false) Double maxPrice) {
+        int pageSize = Math.max(1, Math.min(limit, 100));
+        String categoryFilter = (category != null && !category.isEmpty()) ? category : null;
+
+        // Fetch one extra row to know whether another page exists
+        List<EquipmentSummary> rows = equipmentRepository.findCatalogPage(
+            after, categoryFilter, available, operatorId, minPrice, maxPrice, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<EquipmentSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", items);
+        response.put("hasMore", hasMore);
+        response.put("nextCursor", hasMore ? items.get(items.size() - 1).id() : null);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getById(@PathVariable Long id) {
         Equipment e = equipmentRepository.findById(id).orElse(null);
@@ -67,25 +114,42 @@ public class EquipmentController {
             );
             
             Equipment saved = equipmentRepository.save(temp);
+            geoIndex.put(saved);
             return ResponseEntity.ok(saved);
         }
         Equipment saved = equipmentRepository.save(equipment);
+        geoIndex.put(saved);
         return ResponseEntity.ok(saved);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Equipment equipment) {
-        if (!equipmentRepository.existsById(id)) {
+        Equipment existing = equipmentRepository.findById(id).orElse(null);
+        if (existing == null) {
             return ResponseEntity.status(404).body(Map.of("message", "Not found"));
         }
         equipment.id = id;
-        Equipment saved = equipmentRepository.save(equipment);
+        // Clients that send the version they read get a 409 on a lost update;
+        // older clients without it keep last-write-wins
+        if (equipment.version == null) equipment.version = existing.version;
+        Equipment saved;
+        try {
+            saved = equipmentRepository.save(equipment);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).body(Map.of("message", "Equipment was changed by someone else, reload and try again"));
+        }
+        geoIndex.put(saved);
+        pricingService.evict(id);
+        adminMetrics.evictEquipment(id);
         return ResponseEntity.ok(saved);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> delete(@PathVariable Long id) {
         equipmentRepository.deleteById(id);
+        geoIndex.remove(id);
+        pricingService.evict(id);
+        adminMetrics.evictEquipment(id);
         return ResponseEntity.noContent().build();
     }
 
@@ -105,11 +169,60 @@ public class EquipmentController {
         return ResponseEntity.ok(List.of("Tractor", "Harvester", "Plow", "Irrigation", "Seeder", "Sprayer"));
     }
 
+    /**
+     * Equipment within radius (km) of a point, nearest first
+     */
     @GetMapping("/nearby")
-    public ResponseEntity<List<Equipment>> nearby(@RequestParam double lat, @RequestParam double lng, 
-                                                   @RequestParam(required = false, defaultValue = "10") double radius) {
-        // Simple implementation: return all equipment (in production, use spatial queries)
-        return ResponseEntity.ok(equipmentRepository.findAll());
+    public ResponseEntity<?> nearby(@RequestParam double lat, @RequestParam double lng,
+                                    @RequestParam(required = false, defaultValue = "10") double radius,
+                                    @RequestParam(required = false, defaultValue = "50") int limit) {
+        if (!isLat(lat) || !isLng(lng)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "lat must be within [-90, 90] and lng within [-180, 180]"));
+        }
+        if (!(radius > 0 && radius <= MAX_RADIUS_KM)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "radius must be more than 0 and at most " + (int) MAX_RADIUS_KM + " km"));
+        }
+        return ResponseEntity.ok(loadInOrder(geoIndex.withinRadius(lat, lng, radius, clampLimit(limit))));
+    }
+
+    /**
+     * Equipment inside a map viewport, nearest to the viewport centre first
+     */
+    @GetMapping("/within")
+    public ResponseEntity<?> within(@RequestParam double minLat, @RequestParam double minLng,
+                                    @RequestParam double maxLat, @RequestParam double maxLng,
+                                    @RequestParam(required = false, defaultValue = "100") int limit) {
+        if (!isLat(minLat) || !isLat(maxLat) || !isLng(minLng) || !isLng(maxLng) || minLat > maxLat || minLng > maxLng) {
+            return ResponseEntity.badRequest().body(Map.of("message", "A valid box with min <= max coordinates is required"));
+        }
+        if (maxLat - minLat > MAX_BOX_DEGREES || maxLng - minLng > MAX_BOX_DEGREES) {
+            return ResponseEntity.badRequest().body(Map.of("message", "The box may span at most " + (int) MAX_BOX_DEGREES + " degrees each way"));
+        }
+        double centreLat = (minLat + maxLat) / 2;
+        double centreLng = (minLng + maxLng) / 2;
+        return ResponseEntity.ok(loadInOrder(
+            geoIndex.withinBounds(minLat, minLng, maxLat, maxLng, centreLat, centreLng, clampLimit(limit))));
+    }
+
+    private List<Equipment> loadInOrder(List<EquipmentGeoIndex.Hit> hits) {
+        if (hits.isEmpty()) return List.of();
+        Map<Long, Equipment> byId = equipmentRepository.findAllById(hits.stream().map(EquipmentGeoIndex.Hit::equipmentId).toList())
+            .stream()
+            .collect(Collectors.toMap(e -> e.id, Function.identity()));
+        return hits.stream().map(h -> byId.get(h.equipmentId())).filter(e -> e != null).toList();
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, 500));
+    }
+
+    // NaN fails every comparison, so these reject it too
+    private static boolean isLat(double lat) {
+        return lat >= -90.0 && lat <= 90.0;
+    }
+
+    private static boolean isLng(double lng) {
+        return lng >= -180.0 && lng <= 180.0;
     }
     
     @GetMapping("/{id}/qr-code")
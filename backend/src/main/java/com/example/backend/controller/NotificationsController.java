@@ -2,10 +2,16 @@ package com.example.backend.controller;
 
 import com.example.backend.model.Notification;
 import com.example.backend.repository.NotificationRepository;
+import com.example.backend.service.NotificationStreamService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -14,19 +20,46 @@ import java.util.Map;
 public class NotificationsController {
 
     private final NotificationRepository notificationRepository;
+    private final NotificationStreamService streamService;
 
-    public NotificationsController(NotificationRepository notificationRepository) { 
+    // Keeps the IN list of a bulk update bounded
+    private static final int MAX_BULK_IDS = 1000;
+
+    public NotificationsController(NotificationRepository notificationRepository, NotificationStreamService streamService) { 
         this.notificationRepository = notificationRepository; 
+        this.streamService = streamService;
     }
     
     private Long getCurrentUserId() {
         return (Long) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
     }
 
+    /**
+     * All notifications, or with limit/before a page, newest first.
+     * Pass the returned nextCursor as "before" to fetch the next page.
+     */
     @GetMapping
-    public ResponseEntity<List<Notification>> all() {
+    public ResponseEntity<?> all(@RequestParam(required = false) Long before,
+                                 @RequestParam(required = false) Integer limit) {
         Long userId = getCurrentUserId();
-        return ResponseEntity.ok(notificationRepository.findByUserId(userId));
+        if (before == null && limit == null) {
+            return ResponseEntity.ok(notificationRepository.findByUserId(userId));
+        }
+
+        int pageSize = Math.max(1, Math.min(limit != null ? limit : 20, 100));
+        // Fetch one extra row to know whether another page exists
+        PageRequest page = PageRequest.ofSize(pageSize + 1);
+        List<Notification> rows = before != null
+            ? notificationRepository.findByUserIdAndIdLessThanOrderByIdDesc(userId, before, page)
+            : notificationRepository.findByUserIdOrderByIdDesc(userId, page);
+        boolean hasMore = rows.size() > pageSize;
+        List<Notification> items = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", items);
+        response.put("hasMore", hasMore);
+        response.put("nextCursor", hasMore ? items.get(items.size() - 1).id : null);
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/unread-count")
@@ -41,32 +74,95 @@ public class NotificationsController {
         Notification n = notificationRepository.findById(id).orElse(null);
         if (n == null) return ResponseEntity.status(404).body(Map.of("message", "Not found"));
         n.read = true;
+        if (n.readAt == null) n.readAt = LocalDateTime.now();
         notificationRepository.save(n);
+        streamService.pushUnreadCount(n.userId);
         return ResponseEntity.ok(n);
     }
 
     @PatchMapping("/read-all")
     public ResponseEntity<?> readAll() {
         Long userId = getCurrentUserId();
-        List<Notification> notifications = notificationRepository.findByUserId(userId);
-        notifications.forEach(n -> n.read = true);
-        notificationRepository.saveAll(notifications);
+        notificationRepository.markAllRead(userId, LocalDateTime.now());
+        streamService.pushUnreadCount(userId);
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Mark several of the current user's notifications read in one statement.
+     * Body: {"ids": [1, 2, 3]}
+     */
+    @PatchMapping("/read")
+    public ResponseEntity<?> readSome(@RequestBody Map<String, List<Long>> body) {
+        List<Long> ids = body.get("ids");
+        if (ids == null || ids.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "ids are required"));
+        }
+        if (ids.size() > MAX_BULK_IDS) {
+            return ResponseEntity.badRequest().body(Map.of("message", "At most " + MAX_BULK_IDS + " ids per request"));
+        }
+        Long userId = getCurrentUserId();
+        int updated = notificationRepository.markRead(userId, ids, LocalDateTime.now());
+        if (updated > 0) streamService.pushUnreadCount(userId);
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+
+    /**
+     * Delete the current user's notifications older than olderThanDays
+     */
+    @DeleteMapping
+    public ResponseEntity<?> deleteOld(@RequestParam int olderThanDays) {
+        if (olderThanDays < 0) {
+            return ResponseEntity.badRequest().body(Map.of("message", "olderThanDays must not be negative"));
+        }
+        Long userId = getCurrentUserId();
+        int deleted = notificationRepository.deleteOlderThan(userId, LocalDateTime.now().minusDays(olderThanDays));
+        if (deleted > 0) streamService.pushUnreadCount(userId);
+        return ResponseEntity.ok(Map.of("deleted", deleted));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> delete(@PathVariable Long id) { 
         notificationRepository.deleteById(id);
+        streamService.pushUnreadCount(getCurrentUserId());
         return ResponseEntity.noContent().build(); 
     }
 
+    /**
+     * Live notifications and unread counts as Server-Sent Events.
+     * EventSource can't send headers, so the JWT may be passed as ?token=.
+     * Reconnects resume from the Last-Event-ID header (or ?lastEventId=).
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                             @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        Long since = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                since = Long.valueOf(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                // Not one of our ids; start without replay
+            }
+        }
+        return streamService.connect(getCurrentUserId(), since);
+    }
+
     @PostMapping("/subscribe")
-    public ResponseEntity<?> subscribe(@RequestBody Map<String, String> body) { 
-        return ResponseEntity.ok(Map.of("message", "subscribed")); 
+    public ResponseEntity<?> subscribe(@RequestBody(required = false) Map<String, String> body) { 
+        return ResponseEntity.ok(Map.of(
+            "message", "subscribed",
+            "stream", "/notifications/stream",
+            "unreadCount", notificationRepository.countByUserIdAndRead(getCurrentUserId(), false)
+        )); 
     }
 
+    /**
+     * Close the current user's open streams, e.g. on logout
+     */
     @PostMapping("/unsubscribe")
     public ResponseEntity<?> unsubscribe() { 
+        streamService.disconnect(getCurrentUserId());
         return ResponseEntity.ok(Map.of("message", "unsubscribed")); 
     }
 }
@@ -1,22 +1,47 @@
 package com.example.backend.controller;
 
+import com.example.backend.model.Notification;
 import com.example.backend.model.Payment;
 import com.example.backend.repository.PaymentRepository;
+import com.example.backend.service.NotificationDispatcher;
+import com.example.backend.service.OperatorEarningsService;
+import com.example.backend.service.PaymentChangedEvent;
+import com.example.backend.service.PaymentVerificationService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/payments")
 public class PaymentController {
 
     private final PaymentRepository paymentRepository;
+    private final NotificationDispatcher notifications;
+    private final OperatorEarningsService earningsService;
+    private final ApplicationEventPublisher events;
+    private final PaymentVerificationService verificationService;
 
-    public PaymentController(PaymentRepository paymentRepository) { 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    public PaymentController(PaymentRepository paymentRepository, NotificationDispatcher notifications,
+                             OperatorEarningsService earningsService, ApplicationEventPublisher events,
+                             PaymentVerificationService verificationService) { 
         this.paymentRepository = paymentRepository; 
+        this.notifications = notifications;
+        this.earningsService = earningsService;
+        this.events = events;
+        this.verificationService = verificationService;
     }
     
     private Long getCurrentUserId() {
@@ -28,20 +53,76 @@ public class PaymentController {
         return ResponseEntity.ok(Map.of("orderId", "order_123", "amount", body.get("amount"), "currency", "INR", "key", "rzp_test"));
     }
 
+    /**
+     * Record a verified gateway payment. Retries with the same Idempotency-Key header,
+     * or failing that the same gateway payment id, return the original payment
+     * (with Idempotent-Replayed: true) instead of recording it again.
+     */
     @PostMapping("/razorpay/verify")
-    public ResponseEntity<?> verify(@RequestBody Map<String, Object> body) {
-        Payment p = new Payment();
-        p.bookingId = Long.valueOf(String.valueOf(body.getOrDefault("bookingId", "0")));
-        p.userId = getCurrentUserId();
-        p.amount = 100.0;
-        p.status = "completed";
-        p = paymentRepository.save(p);
-        return ResponseEntity.ok(p);
+    public ResponseEntity<?> verify(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                    @RequestBody Map<String, Object> body) {
+        Long userId = getCurrentUserId();
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Idempotency-Key must be 1-" + MAX_IDEMPOTENCY_KEY_LENGTH + " characters"));
+        }
+        String transactionId = firstString(body, "paymentId", "razorpay_payment_id", "transactionId");
+        // Client keys are only unique per user; gateway ids are unique everywhere
+        String key = idempotencyKey != null ? "user:" + userId + ":" + idempotencyKey.trim()
+            : transactionId != null ? "txn:" + transactionId : null;
+
+        Supplier<Payment> create = () -> {
+            Payment p = new Payment();
+            p.bookingId = Long.valueOf(String.valueOf(body.getOrDefault("bookingId", "0")));
+            p.userId = userId;
+            p.amount = 100.0;
+            p.status = "completed";
+            p.paymentMethod = "razorpay";
+            p.transactionId = transactionId;
+            return p;
+        };
+
+        if (key == null) {
+            // Nothing to de-duplicate on
+            return ResponseEntity.ok(recorded(paymentRepository.save(create.get())));
+        }
+
+        PaymentVerificationService.Result result;
+        try {
+            result = verificationService.verify(key, create);
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(409).body(Map.of("message", "This payment is still being processed, please retry"));
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(409).body(Map.of("message", "This transaction has already been recorded"));
+        }
+
+        Payment p = result.payment();
+        if (!userId.equals(p.userId)) {
+            return ResponseEntity.status(409).body(Map.of("message", "This transaction has already been recorded"));
+        }
+        if (result.replayed()) {
+            return ResponseEntity.ok().header(REPLAYED_HEADER, "true").body(p);
+        }
+        return ResponseEntity.ok(recorded(p));
+    }
+
+    private Payment recorded(Payment p) {
+        events.publishEvent(new PaymentChangedEvent(p, null));
+        notifications.enqueue(Notification.of(p.userId, "payment", "Payment received",
+            "We received your payment of ₹" + p.amount + ".", "/booking/" + p.bookingId));
+        return p;
+    }
+
+    private static String firstString(Map<String, Object> body, String... names) {
+        for (String name : names) {
+            Object value = body.get(name);
+            if (value != null && !value.toString().isBlank()) return value.toString().trim();
+        }
+        return null;
     }
 
     @GetMapping("/booking/{bookingId}")
     public ResponseEntity<?> getByBooking(@PathVariable Long bookingId) {
-        return ResponseEntity.ok(paymentRepository.findByBookingId(bookingId).orElse(null));
+        return ResponseEntity.ok(paymentRepository.findFirstByBookingIdOrderByIdDesc(bookingId).orElse(null));
     }
 
     @GetMapping("/history")
@@ -54,9 +135,14 @@ public class PaymentController {
     public ResponseEntity<?> refund(@PathVariable Long paymentId, @RequestBody Map<String, Object> body) {
         Payment p = paymentRepository.findById(paymentId).orElse(null);
         if (p == null) return ResponseEntity.status(404).body(Map.of("message", "Not found"));
+        String previousStatus = p.status;
         p.refundAmount = Double.valueOf(String.valueOf(body.getOrDefault("amount", "0")));
+        p.refundDate = LocalDateTime.now();
         p.status = "refunded";
         paymentRepository.save(p);
+        events.publishEvent(new PaymentChangedEvent(p, previousStatus));
+        notifications.enqueue(Notification.of(p.userId, "payment", "Refund issued",
+            "A refund of ₹" + p.refundAmount + " is on its way.", "/booking/" + p.bookingId));
         return ResponseEntity.ok(p);
     }
 
@@ -80,10 +166,35 @@ public class PaymentController {
         return ResponseEntity.ok(Map.of("message", "Fine waived"));
     }
     
+    /**
+     * The current operator's earnings between startDate and endDate (inclusive, yyyy-MM-dd),
+     * net of refunds, with a per-day breakdown. Both dates are optional.
+     */
     @GetMapping("/operator/earnings")
     public ResponseEntity<?> getOperatorEarnings(@RequestParam(required = false) String startDate, 
                                                   @RequestParam(required = false) String endDate) {
-        return ResponseEntity.ok(Map.of("totalEarnings", 0.0, "bookingsCount", 0));
+        LocalDate from, to;
+        try {
+            from = startDate != null && !startDate.isBlank() ? LocalDate.parse(startDate) : null;
+            to = endDate != null && !endDate.isBlank() ? LocalDate.parse(endDate) : null;
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Dates must be yyyy-MM-dd"));
+        }
+        if (from != null && to != null && to.isBefore(from)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "endDate is before startDate"));
+        }
+
+        OperatorEarningsService.Summary summary = earningsService.summary(getCurrentUserId(), from, to);
+        return ResponseEntity.ok(Map.of(
+            "totalEarnings", summary.totalEarnings(),
+            "bookingsCount", summary.paymentsCount(),
+            "grossAmount", summary.grossAmount(),
+            "refundAmount", summary.refundAmount(),
+            "refundsCount", summary.refundsCount(),
+            "startDate", summary.startDate(),
+            "endDate", summary.endDate(),
+            "days", summary.days()
+        ));
     }
     
     @GetMapping("/transaction/{transactionId}")
@@ -4,15 +4,35 @@ import com.example.backend.model.Booking;
 import com.example.backend.model.Equipment;
 import com.example.backend.repository.BookingRepository;
 import com.example.backend.repository.EquipmentRepository;
+import com.example.backend.service.BookingChangedEvent;
+import com.example.backend.service.EquipmentCheckoutService;
 import com.example.backend.service.QRCodeService;
+import com.example.backend.service.QRLabelService;
+import com.example.backend.service.QrTokenService;
 import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/qr")
@@ -21,13 +41,28 @@ public class QRCodeController {
     private final QRCodeService qrCodeService;
     private final EquipmentRepository equipmentRepository;
     private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher events;
+    private final QRLabelService qrLabelService;
+    private final QrTokenService qrTokenService;
+    private final EquipmentCheckoutService checkoutService;
+
+    // Largest depot we print in one request
+    private static final int MAX_LABELS = 2_000;
 
     public QRCodeController(QRCodeService qrCodeService, 
                            EquipmentRepository equipmentRepository,
-                           BookingRepository bookingRepository) {
+                           BookingRepository bookingRepository,
+                           ApplicationEventPublisher events,
+                           QRLabelService qrLabelService,
+                           QrTokenService qrTokenService,
+                           EquipmentCheckoutService checkoutService) {
         this.qrCodeService = qrCodeService;
         this.equipmentRepository = equipmentRepository;
         this.bookingRepository = bookingRepository;
+        this.events = events;
+        this.qrLabelService = qrLabelService;
+        this.qrTokenService = qrTokenService;
+        this.checkoutService = checkoutService;
     }
 
     /**
@@ -41,8 +76,9 @@ public class QRCodeController {
                 return ResponseEntity.status(404).body(Map.of("message", "Equipment not found"));
             }
 
-            String qrCodeImage = qrCodeService.generateEquipmentQRCode(equipmentId, equipment.name);
+            // The label carries exactly the token that scans are checked against
             String qrData = qrCodeService.generateSimpleQRData(equipmentId);
+            String qrCodeImage = qrCodeService.generateEquipmentQRCode(qrData);
             
             // Save QR data to equipment
             equipment.qrCode = qrData;
@@ -60,6 +96,121 @@ public class QRCodeController {
         }
     }
 
+    /**
+     * Stream the equipment's current QR code as a PNG.
+     * The ETag depends only on the payload and render options, so clients holding
+     * a fresh copy get a 304 without the image being rendered.
+     */
+    @GetMapping("/equipment/{equipmentId}/image")
+    public ResponseEntity<?> equipmentQRImage(@PathVariable Long equipmentId,
+                                              @RequestParam(defaultValue = "300") int size,
+                                              @RequestParam(defaultValue = "H") String ecc,
+                                              @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        Equipment equipment = equipmentRepository.findById(equipmentId).orElse(null);
+        if (equipment == null) {
+            return ResponseEntity.status(404).body(Map.of("message", "Equipment not found"));
+        }
+
+        ErrorCorrectionLevel level;
+        try {
+            level = ErrorCorrectionLevel.valueOf(ecc.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "ecc must be one of L, M, Q, H"));
+        }
+        int pixels = Math.max(64, Math.min(size, 1024));
+        String qrData = equipment.qrCode != null ? equipment.qrCode : "QR_" + equipmentId;
+
+        String etag = imageETag(qrData, pixels, level);
+        CacheControl cacheControl = CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate().mustRevalidate();
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        try {
+            byte[] png = qrCodeService.renderPng(qrData, pixels, level);
+            return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .contentLength(png.length)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(png);
+        } catch (WriterException | IOException e) {
+            return ResponseEntity.status(500).body(Map.of("message", "Failed to generate QR code", "error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Bulk QR labels for a list of equipment ids or all of an operator's equipment.
+     * format=sheet (default) returns printable A4 pages, format=zip one PNG per item;
+     * both are streamed as a ZIP while rendering is still in progress.
+     */
+    @PostMapping("/labels")
+    public ResponseEntity<StreamingResponseBody> generateLabels(@RequestBody Map<String, Object> body) {
+        List<Equipment> equipment;
+        try {
+            if (body.get("equipmentIds") instanceof List<?> rawIds && !rawIds.isEmpty()) {
+                // Checked before loading anything, so an oversized request costs no query
+                if (rawIds.size() > MAX_LABELS) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_LABELS + " labels per request");
+                }
+                List<Long> ids = rawIds.stream().map(id -> Long.valueOf(id.toString())).toList();
+                equipment = equipmentRepository.findAllById(ids);
+            } else if (body.get("operatorId") != null) {
+                Long operatorId = Long.valueOf(body.get("operatorId").toString());
+                if (equipmentRepository.countByOperatorId(operatorId) > MAX_LABELS) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_LABELS + " labels per request");
+                }
+                equipment = equipmentRepository.findByOperatorId(operatorId);
+            } else {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "equipmentIds or operatorId is required");
+            }
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Equipment and operator ids must be numbers");
+        }
+
+        if (equipment.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Equipment not found");
+        }
+
+        // Items that never had a code get one now, same as the single generate endpoint, but only
+        // the caller's own items (or any, for admins); others print with their fallback code
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean admin = auth.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+        Long userId = (Long) auth.getPrincipal();
+        List<Equipment> missing = equipment.stream()
+            .filter(e -> e.qrCode == null || e.qrCode.isEmpty())
+            .filter(e -> admin || userId.equals(e.operatorId))
+            .toList();
+        if (!missing.isEmpty()) {
+            missing.forEach(e -> e.qrCode = qrCodeService.generateSimpleQRData(e.id));
+            equipmentRepository.saveAll(missing);
+        }
+
+        boolean sheet = !"zip".equalsIgnoreCase(String.valueOf(body.getOrDefault("format", "sheet")));
+        StreamingResponseBody stream = out -> {
+            if (sheet) {
+                qrLabelService.writeSheetZip(equipment, out);
+            } else {
+                qrLabelService.writeLabelZip(equipment, out);
+            }
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/zip"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + (sheet ? "qr-label-sheets" : "qr-labels") + ".zip\"")
+            .body(stream);
+    }
+
+    private static String imageETag(String qrData, int size, ErrorCorrectionLevel level) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((qrData + "|" + size + "|" + level).getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(hash, 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     /**
      * Generate QR code for booking check-in/check-out
      */
@@ -156,6 +307,11 @@ public class QRCodeController {
             Long bookingId = Long.parseLong(body.get("bookingId").toString());
             String qrData = (String) body.get("qrData");
 
+            // Forged or revoked codes are turned away before any lookup
+            if (qrTokenService.isRejected(qrData)) {
+                return ResponseEntity.badRequest().body(Map.of("message", "Invalid QR code"));
+            }
+
             Booking booking = bookingRepository.findById(bookingId).orElse(null);
             if (booking == null) {
                 return ResponseEntity.status(404).body(Map.of("message", "Booking not found"));
@@ -168,24 +324,24 @@ public class QRCodeController {
 
             // Verify QR code matches
             if (equipment.qrCode != null && !equipment.qrCode.equals(qrData)) {
-                // Try parsing the QR data
-                Map<String, Object> qrValidation = qrCodeService.validateEquipmentQRCode(qrData);
-                if (!Boolean.TRUE.equals(qrValidation.get("valid")) || 
-                    !booking.equipmentId.equals(qrValidation.get("equipmentId"))) {
+                // Any equipment format naming this booking's equipment is accepted
+                if (!booking.equipmentId.equals(qrTokenService.equipmentId(qrData))) {
                     return ResponseEntity.badRequest().body(Map.of("message", "QR code does not match equipment"));
                 }
             }
 
             // Update booking check-in status
-            booking.checkInTime = LocalDateTime.now().toString();
+            booking.checkInTime = LocalDateTime.now();
             booking.qrCodeScanned = true;
             booking.status = "active";
             booking.updatedAt = LocalDateTime.now();
-            bookingRepository.save(booking);
 
-            // Update equipment availability
-            equipment.available = false;
-            equipmentRepository.save(equipment);
+            // Take the equipment and save the booking in one transaction
+            Booking saved = checkoutService.borrow(booking);
+            if (saved == null) {
+                return ResponseEntity.status(409).body(Map.of("message", "Equipment is already in use"));
+            }
+            events.publishEvent(BookingChangedEvent.of(saved));
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Check-in successful");
@@ -208,6 +364,11 @@ public class QRCodeController {
             Long bookingId = Long.parseLong(body.get("bookingId").toString());
             String qrData = (String) body.get("qrData");
 
+            // Forged or revoked codes are turned away before any lookup
+            if (qrTokenService.isRejected(qrData)) {
+                return ResponseEntity.badRequest().body(Map.of("message", "Invalid QR code"));
+            }
+
             Booking booking = bookingRepository.findById(bookingId).orElse(null);
             if (booking == null) {
                 return ResponseEntity.status(404).body(Map.of("message", "Booking not found"));
@@ -224,22 +385,22 @@ public class QRCodeController {
 
             // Verify QR code matches
             if (equipment.qrCode != null && !equipment.qrCode.equals(qrData)) {
-                Map<String, Object> qrValidation = qrCodeService.validateEquipmentQRCode(qrData);
-                if (!Boolean.TRUE.equals(qrValidation.get("valid")) || 
-                    !booking.equipmentId.equals(qrValidation.get("equipmentId"))) {
+                // Any equipment format naming this booking's equipment is accepted
+                if (!booking.equipmentId.equals(qrTokenService.equipmentId(qrData))) {
                     return ResponseEntity.badRequest().body(Map.of("message", "QR code does not match equipment"));
                 }
             }
 
             // Update booking check-out status
-            booking.checkOutTime = LocalDateTime.now().toString();
+            booking.checkOutTime = LocalDateTime.now();
             booking.status = "completed";
             booking.updatedAt = LocalDateTime.now();
-            bookingRepository.save(booking);
 
-            // Update equipment availability
-            equipment.available = true;
-            equipmentRepository.save(equipment);
+            // Close the booking and make the equipment available in one transaction
+            if (!checkoutService.giveBack(booking)) {
+                return ResponseEntity.status(409).body(Map.of("message", "Booking has already been checked out or closed"));
+            }
+            events.publishEvent(BookingChangedEvent.of(booking));
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Check-out successful");
@@ -258,10 +419,9 @@ public class QRCodeController {
      */
     @GetMapping("/scan/{qrData}")
     public ResponseEntity<?> scanQR(@PathVariable String qrData) {
-        Map<String, Object> validationResult = qrCodeService.validateEquipmentQRCode(qrData);
+        Long equipmentId = qrTokenService.equipmentId(qrData);
         
-        if (Boolean.TRUE.equals(validationResult.get("valid"))) {
-            Long equipmentId = (Long) validationResult.get("equipmentId");
+        if (equipmentId != null) {
             Equipment equipment = equipmentRepository.findById(equipmentId).orElse(null);
             
             if (equipment != null) {
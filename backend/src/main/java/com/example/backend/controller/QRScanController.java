@@ -6,15 +6,33 @@ import com.example.backend.model.User;
 import com.example.backend.repository.BookingRepository;
 import com.example.backend.repository.EquipmentRepository;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.service.BookingAvailabilityIndex;
+import com.example.backend.service.BookingChangedEvent;
+import com.example.backend.service.EquipmentCheckoutService;
+import com.example.backend.service.PricingService;
 import com.example.backend.service.QRCodeService;
+import com.example.backend.service.QRDecodeService;
+import com.example.backend.service.QrTokenService;
+import com.example.backend.service.UserBookingStatsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * QR Scan Controller - Handles QR-based equipment borrowing and return workflows
@@ -24,21 +42,62 @@ import java.util.Map;
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
 public class QRScanController {
 
+    private static final Logger log = LoggerFactory.getLogger(QRScanController.class);
+
+    private static final String BORROW = "borrow";
+    private static final String RETURN = "return";
+
     private final EquipmentRepository equipmentRepository;
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final QRCodeService qrCodeService;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final UserBookingStatsService bookingStats;
+    private final ApplicationEventPublisher events;
+    private final QrTokenService qrTokenService;
+    private final QRDecodeService qrDecodeService;
+    private final EquipmentCheckoutService checkoutService;
+    private final PricingService pricingService;
+    private final MeterRegistry meterRegistry;
 
     public QRScanController(
             EquipmentRepository equipmentRepository,
             BookingRepository bookingRepository,
             UserRepository userRepository,
-            QRCodeService qrCodeService
+            QRCodeService qrCodeService,
+            BookingAvailabilityIndex availabilityIndex,
+            UserBookingStatsService bookingStats,
+            ApplicationEventPublisher events,
+            QrTokenService qrTokenService,
+            QRDecodeService qrDecodeService,
+            EquipmentCheckoutService checkoutService,
+            PricingService pricingService,
+            MeterRegistry meterRegistry
     ) {
         this.equipmentRepository = equipmentRepository;
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
         this.qrCodeService = qrCodeService;
+        this.availabilityIndex = availabilityIndex;
+        this.bookingStats = bookingStats;
+        this.events = events;
+        this.qrTokenService = qrTokenService;
+        this.qrDecodeService = qrDecodeService;
+        this.checkoutService = checkoutService;
+        this.pricingService = pricingService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Count how a borrow or return scan ended, e.g. lost_race or returned_late
+     */
+    private void outcome(String action, String outcome) {
+        Counter.builder("equipment.checkout")
+            .description("Borrow and return scans by outcome")
+            .tag("action", action)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
     }
 
     private Long getCurrentUserId() {
@@ -60,9 +119,79 @@ public class QRScanController {
             ));
         }
 
+        return validate(qrData, getCurrentUserId());
+    }
+
+    /**
+     * Decode a camera photo of a QR code on the server, then validate it like /validate.
+     * For phones that can't decode reliably on device.
+     * POST /api/qr-scan/decode (multipart, field "image")
+     */
+    @PostMapping("/decode")
+    public CompletableFuture<ResponseEntity<?>> decodeQRImage(@RequestParam("image") MultipartFile image) {
+        if (image == null || image.isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Image is required"
+            )));
+        }
+
+        CompletableFuture<String> decoded;
         try {
-            // Parse QR code to extract equipment ID
-            Long equipmentId = parseEquipmentId(qrData);
+            decoded = qrDecodeService.decode(image.getBytes());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "2").body(Map.of(
+                "success", false,
+                "message", "QR decoder is busy, please try again"
+            )));
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Could not read uploaded image"
+            )));
+        }
+
+        // The request thread is released here; the answer is built on the thread that finishes decoding
+        Long userId = getCurrentUserId();
+        return decoded.handle((qrData, error) -> {
+            if (error != null) {
+                return decodeFailed(error instanceof CompletionException ? error.getCause() : error);
+            }
+            if (qrData == null || qrData.isEmpty()) {
+                return ResponseEntity.unprocessableEntity().body(Map.of(
+                    "success", false,
+                    "message", "No QR code found in the image"
+                ));
+            }
+            return validate(qrData, userId);
+        });
+    }
+
+    private ResponseEntity<?> decodeFailed(Throwable error) {
+        if (error instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", error.getMessage()
+            ));
+        }
+        if (error instanceof TimeoutException) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "2").body(Map.of(
+                "success", false,
+                "message", "QR code could not be decoded in time, please retake the photo"
+            ));
+        }
+        // The decoder tripped over this photo; another shot usually works
+        log.warn("QR decoding failed", error);
+        return ResponseEntity.unprocessableEntity().body(Map.of(
+            "success", false,
+            "message", "QR code could not be read from the image, please retake the photo"
+        ));
+    }
+
+    private ResponseEntity<?> validate(String qrData, Long userId) {
+        try {
+            // Parse QR code to extract equipment ID; forged signed codes stop here
+            Long equipmentId = qrTokenService.equipmentId(qrData);
             
             if (equipmentId == null) {
                 return ResponseEntity.badRequest().body(Map.of(
@@ -71,8 +200,8 @@ public class QRScanController {
                 ));
             }
 
-            // Fetch equipment details
-            Equipment equipment = equipmentRepository.findById(equipmentId).orElse(null);
+            // Fetch equipment details; decoded photos are answered off the request's session
+            Equipment equipment = equipmentRepository.findWithSpecificationsById(equipmentId).orElse(null);
             
             if (equipment == null) {
                 return ResponseEntity.status(404).body(Map.of(
@@ -81,27 +210,20 @@ public class QRScanController {
                 ));
             }
 
-            // Get current user
-            Long userId = getCurrentUserId();
             User user = userRepository.findById(userId).orElse(null);
 
-            // Check for active booking
-            List<Booking> activeBookings = bookingRepository.findByEquipmentIdAndUserId(equipmentId, userId);
-            Booking activeBooking = activeBookings.stream()
-                .filter(b -> "confirmed".equals(b.status) || "in-progress".equals(b.status))
-                .findFirst()
+            // Counters answer both checks; only users holding something need the booking lookup
+            UserBookingStatsService.Counts counts = bookingStats.get(userId);
+            Booking activeBooking = counts.active() + counts.overdue() == 0 ? null : bookingRepository
+                .findFirstByEquipmentIdAndUserIdAndStatusIn(equipmentId, userId, EquipmentCheckoutService.RETURNABLE_STATUSES)
                 .orElse(null);
 
-            // Check for overdue bookings
-            List<Booking> overdueBookings = bookingRepository.findByUserId(userId).stream()
-                .filter(b -> "overdue".equals(b.status))
-                .toList();
-
-            boolean hasOverdueItems = !overdueBookings.isEmpty();
+            boolean hasOverdueItems = counts.overdue() > 0;
 
             // Determine available actions
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
+            response.put("qrData", qrData);
             response.put("equipment", equipment);
             response.put("hasActiveBooking", activeBooking != null);
             response.put("activeBooking", activeBooking);
@@ -141,6 +263,7 @@ public class QRScanController {
             User user = userRepository.findById(userId).orElse(null);
             
             if (user == null) {
+                outcome(BORROW, "unknown_user");
                 return ResponseEntity.status(401).body(Map.of(
                     "success", false,
                     "message", "User not authenticated"
@@ -148,15 +271,14 @@ public class QRScanController {
             }
 
             // Check for overdue items
-            List<Booking> overdueBookings = bookingRepository.findByUserId(userId).stream()
-                .filter(b -> "overdue".equals(b.status))
-                .toList();
+            int overdueCount = bookingStats.get(userId).overdue();
             
-            if (!overdueBookings.isEmpty()) {
+            if (overdueCount > 0) {
+                outcome(BORROW, "overdue");
                 return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
                     "message", "You have overdue equipment. Please return them first.",
-                    "overdueCount", overdueBookings.size()
+                    "overdueCount", overdueCount
                 ));
             }
 
@@ -164,6 +286,7 @@ public class QRScanController {
             Equipment equipment = equipmentRepository.findById(equipmentId).orElse(null);
             
             if (equipment == null) {
+                outcome(BORROW, "not_found");
                 return ResponseEntity.status(404).body(Map.of(
                     "success", false,
                     "message", "Equipment not found"
@@ -171,12 +294,26 @@ public class QRScanController {
             }
 
             if (!equipment.available) {
+                outcome(BORROW, "unavailable");
                 return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
                     "message", "Equipment is not available for borrowing"
                 ));
             }
 
+            // Reject if an advance booking already holds this slot
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime endTime = "hours".equals(durationType) ? 
+                now.plusHours(duration) : now.plusDays(duration);
+            if (!availabilityIndex.isFree(equipment.id, now, endTime)) {
+                outcome(BORROW, "reserved");
+                return ResponseEntity.status(409).body(Map.of(
+                    "success", false,
+                    "message", "Equipment is reserved for this time",
+                    "nextAvailableStart", availabilityIndex.nextFreeSlot(equipment.id, now, java.time.Duration.between(now, endTime))
+                ));
+            }
+
             // Create booking
             Booking booking = new Booking();
             booking.equipmentId = equipment.id;
@@ -190,47 +327,50 @@ public class QRScanController {
             booking.status = "confirmed";
             booking.paymentStatus = "pending";
             booking.qrCodeScanned = true;
-            booking.checkOutTime = LocalDateTime.now().toString();
-            booking.createdAt = LocalDateTime.now();
+            booking.checkOutTime = now;
+            booking.createdAt = now;
             
             // Calculate total amount
-            Double pricePerUnit = "hours".equals(durationType) ? 
-                equipment.pricePerHour : equipment.pricePerDay;
-            booking.totalAmount = pricePerUnit != null ? pricePerUnit * duration : 0.0;
+            booking.totalAmount = pricingService.quote(equipment,
+                "hours".equals(durationType) ? PricingService.HOURS : PricingService.DAYS,
+                java.time.Duration.between(now, endTime)).totalAmount();
             
             // Set dates
-            LocalDateTime now = LocalDateTime.now();
-            booking.startDate = now.toLocalDate().toString();
-            booking.startTime = now.toLocalTime().toString();
+            booking.startDate = now.toLocalDate();
+            booking.startTime = now.toLocalTime();
             
-            LocalDateTime endTime = "hours".equals(durationType) ? 
-                now.plusHours(duration) : now.plusDays(duration);
-            booking.endDate = endTime.toLocalDate().toString();
-            booking.endTime = endTime.toLocalTime().toString();
+            booking.endDate = endTime.toLocalDate();
+            booking.endTime = endTime.toLocalTime();
 
             // Store location if provided
             if (lat != null && lng != null) {
                 // In production, add location fields to Booking model
                 // For now, we'll just log it
-                System.out.println("Borrowing location: " + lat + ", " + lng);
+                log.debug("Borrowing equipment {} at {}, {}", equipment.id, lat, lng);
             }
 
-            // Save booking
-            Booking savedBooking = bookingRepository.save(booking);
-
-            // Update equipment status
-            equipment.available = false;
-            equipment.totalBookings = (equipment.totalBookings != null ? equipment.totalBookings : 0) + 1;
-            equipmentRepository.save(equipment);
+            // Take the equipment and save the booking in one transaction
+            Booking savedBooking = checkoutService.borrow(booking);
+            if (savedBooking == null) {
+                outcome(BORROW, "lost_race");
+                return ResponseEntity.status(409).body(Map.of(
+                    "success", false,
+                    "message", "Equipment was just borrowed by someone else"
+                ));
+            }
+            events.publishEvent(BookingChangedEvent.of(savedBooking));
+            outcome(BORROW, "borrowed");
 
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Equipment borrowed successfully",
                 "booking", savedBooking,
-                "equipment", equipment
+                "equipment", equipmentRepository.findById(equipmentId).orElse(equipment)
             ));
 
         } catch (Exception e) {
+            log.warn("Borrow failed", e);
+            outcome(BORROW, "error");
             return ResponseEntity.status(500).body(Map.of(
                 "success", false,
                 "message", "Error borrowing equipment: " + e.getMessage()
@@ -258,6 +398,7 @@ public class QRScanController {
             Booking booking = bookingRepository.findById(bookingId).orElse(null);
             
             if (booking == null) {
+                outcome(RETURN, "not_found");
                 return ResponseEntity.status(404).body(Map.of(
                     "success", false,
                     "message", "Booking not found"
@@ -267,16 +408,26 @@ public class QRScanController {
             // Verify booking belongs to current user or operator
             Long userId = getCurrentUserId();
             if (!booking.userId.equals(userId) && !booking.operatorId.equals(userId)) {
+                outcome(RETURN, "forbidden");
                 return ResponseEntity.status(403).body(Map.of(
                     "success", false,
                     "message", "Unauthorized to return this equipment"
                 ));
             }
 
+            if (!booking.equipmentId.equals(equipmentId)) {
+                outcome(RETURN, "wrong_equipment");
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Booking is for different equipment"
+                ));
+            }
+
             // Get equipment
             Equipment equipment = equipmentRepository.findById(equipmentId).orElse(null);
             
             if (equipment == null) {
+                outcome(RETURN, "not_found");
                 return ResponseEntity.status(404).body(Map.of(
                     "success", false,
                     "message", "Equipment not found"
@@ -285,40 +436,43 @@ public class QRScanController {
 
             // Update booking
             booking.status = "completed";
-            booking.checkInTime = LocalDateTime.now().toString();
+            booking.checkInTime = LocalDateTime.now();
             booking.updatedAt = LocalDateTime.now();
 
             // Calculate late fee
             LocalDateTime now = LocalDateTime.now();
-            LocalDateTime expectedReturn = LocalDateTime.parse(booking.endDate + "T" + booking.endTime);
+            LocalDateTime expectedReturn = booking.end();
             
             Double lateFee = 0.0;
-            if (now.isAfter(expectedReturn)) {
-                // Calculate hours late
-                long hoursLate = java.time.Duration.between(expectedReturn, now).toHours();
-                lateFee = hoursLate * 100.0; // ₹100 per hour late
-                booking.totalAmount = booking.totalAmount + lateFee;
+            if (expectedReturn != null && now.isAfter(expectedReturn)) {
+                lateFee = pricingService.lateFee(booking, now);
+                booking.totalAmount = (booking.totalAmount != null ? booking.totalAmount : 0.0) + lateFee;
                 booking.status = "overdue-returned";
             }
 
             // Store return location if provided
             if (lat != null && lng != null) {
-                System.out.println("Return location: " + lat + ", " + lng);
+                log.debug("Returning equipment {} at {}, {}", equipment.id, lat, lng);
             }
 
-            // Save booking
-            Booking savedBooking = bookingRepository.save(booking);
-
-            // Update equipment status
-            equipment.available = true;
-            equipmentRepository.save(equipment);
+            // Close the booking and make the equipment available in one transaction
+            if (!checkoutService.giveBack(booking)) {
+                outcome(RETURN, "not_returnable");
+                return ResponseEntity.status(409).body(Map.of(
+                    "success", false,
+                    "message", "Booking has already been returned or closed"
+                ));
+            }
+            events.publishEvent(BookingChangedEvent.of(booking));
+            equipment = equipmentRepository.findById(equipmentId).orElse(equipment);
+            outcome(RETURN, lateFee > 0 ? "returned_late" : "returned");
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", lateFee > 0 ? 
                 "Equipment returned with late fee" : 
                 "Equipment returned successfully");
-            response.put("booking", savedBooking);
+            response.put("booking", booking);
             response.put("equipment", equipment);
             response.put("lateFee", lateFee);
             response.put("finalAmount", booking.totalAmount);
@@ -326,6 +480,8 @@ public class QRScanController {
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
+            log.warn("Return failed", e);
+            outcome(RETURN, "error");
             return ResponseEntity.status(500).body(Map.of(
                 "success", false,
                 "message", "Error returning equipment: " + e.getMessage()
@@ -340,7 +496,7 @@ public class QRScanController {
     @GetMapping("/equipment/{qrCode}")
     public ResponseEntity<?> getEquipmentByQR(@PathVariable String qrCode) {
         try {
-            Long equipmentId = parseEquipmentId(qrCode);
+            Long equipmentId = qrTokenService.equipmentId(qrCode);
             
             if (equipmentId == null) {
                 return ResponseEntity.badRequest().body(Map.of(
@@ -370,42 +526,4 @@ public class QRScanController {
             ));
         }
     }
-
-    /**
-     * Helper method to parse equipment ID from QR data
-     * Supports formats:
-     * - EQ-123-XXXXX
-     * - QR_123
-     * - EQUIPMENT:123:name:uuid
-     */
-    private Long parseEquipmentId(String qrData) {
-        try {
-            // Format: EQ-123-XXXXX
-            if (qrData.startsWith("EQ-")) {
-                String[] parts = qrData.split("-");
-                if (parts.length >= 2) {
-                    return Long.parseLong(parts[1]);
-                }
-            }
-            
-            // Format: QR_123
-            if (qrData.startsWith("QR_")) {
-                return Long.parseLong(qrData.substring(3));
-            }
-            
-            // Format: EQUIPMENT:123:name:uuid
-            if (qrData.startsWith("EQUIPMENT:")) {
-                String[] parts = qrData.split(":");
-                if (parts.length >= 2) {
-                    return Long.parseLong(parts[1]);
-                }
-            }
-            
-            // Try direct numeric parsing
-            return Long.parseLong(qrData);
-            
-        } catch (NumberFormatException e) {
-            return null;
-        }
-    }
 }
@@ -0,0 +1,21 @@
+package com.example.backend.dto;
+
+/**
+ * Catalog row for equipment listings. Leaves out the description and
+ * specifications collection so list pages stay a single flat query.
+ */
+public record EquipmentSummary(
+        Long id,
+        String name,
+        String category,
+        Double pricePerDay,
+        Double pricePerHour,
+        boolean available,
+        Long operatorId,
+        String operatorName,
+        String image,
+        Double rating,
+        Double lat,
+        Double lng,
+        String address
+) {}
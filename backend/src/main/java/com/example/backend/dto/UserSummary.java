@@ -0,0 +1,18 @@
+package com.example.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row for admin user listings. Leaves out the password hash, address and
+ * payout details so list pages only read what the table shows.
+ */
+public record UserSummary(
+        Long id,
+        String name,
+        String email,
+        String phone,
+        String role,
+        String village,
+        boolean active,
+        LocalDateTime joinedAt
+) {}
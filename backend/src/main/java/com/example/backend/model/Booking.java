@@ -1,11 +1,19 @@
 package com.example.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_user_status", columnList = "user_id, status"),
+    @Index(name = "idx_bookings_equipment_user", columnList = "equipment_id, user_id"),
+    @Index(name = "idx_bookings_equipment_range", columnList = "equipment_id, start_at, end_at"),
+    @Index(name = "idx_bookings_status_end", columnList = "status, end_at")
+})
 public class Booking {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -30,16 +38,23 @@ public class Booking {
     public String operatorName;
     
     @Column(name = "start_date")
-    public String startDate;
+    public LocalDate startDate;
     
     @Column(name = "end_date")
-    public String endDate;
+    public LocalDate endDate;
     
     @Column(name = "start_time")
-    public String startTime;
+    public LocalTime startTime;
     
     @Column(name = "end_time")
-    public String endTime;
+    public LocalTime endTime;
+
+    // Derived from the date/time pairs on every write; these carry the range indexes
+    @Column(name = "start_at")
+    public LocalDateTime startAt;
+
+    @Column(name = "end_at")
+    public LocalDateTime endAt;
     
     public Integer duration;
     
@@ -55,10 +70,10 @@ public class Booking {
     public String paymentStatus = "pending";
     
     @Column(name = "check_in_time")
-    public String checkInTime;
+    public LocalDateTime checkInTime;
     
     @Column(name = "check_out_time")
-    public String checkOutTime;
+    public LocalDateTime checkOutTime;
     
     @Column(name = "qr_code_scanned")
     public Boolean qrCodeScanned = false;
@@ -68,4 +83,37 @@ public class Booking {
     
     @Column(name = "updated_at")
     public LocalDateTime updatedAt;
+
+    // Status as last read from the database, so listeners can tell what a save changed
+    @Transient
+    @JsonIgnore
+    public String persistedStatus;
+
+    @PostLoad
+    void rememberPersistedStatus() {
+        persistedStatus = status;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void syncRange() {
+        startAt = start();
+        endAt = end();
+    }
+
+    /**
+     * Start of the booked range; a missing time means start of day
+     */
+    public LocalDateTime start() {
+        if (startDate == null) return null;
+        return startDate.atTime(startTime != null ? startTime : LocalTime.MIDNIGHT);
+    }
+
+    /**
+     * End of the booked range; a missing time means the whole end day is held
+     */
+    public LocalDateTime end() {
+        if (endDate == null) return null;
+        return endTime != null ? endDate.atTime(endTime) : endDate.plusDays(1).atStartOfDay();
+    }
 }
@@ -0,0 +1,27 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * One named counter for one day, e.g. bookings created or revenue, adjusted as bookings and payments change
+ */
+@Entity
+@Table(name = "daily_metrics", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_daily_metrics_day_metric", columnNames = {"metric_day", "metric"})
+})
+public class DailyMetric {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    public Long id;
+
+    @Column(name = "metric_day", nullable = false)
+    public LocalDate day;
+
+    @Column(name = "metric", nullable = false, length = 120)
+    public String metric;
+
+    @Column(name = "metric_value")
+    public double value;
+}
@@ -1,12 +1,18 @@
 package com.example.backend.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Entity
-@Table(name = "equipment")
+@Table(name = "equipment", indexes = {
+    @Index(name = "idx_equipment_category", columnList = "category, id"),
+    @Index(name = "idx_equipment_operator", columnList = "operator_id, id"),
+    @Index(name = "idx_equipment_available", columnList = "available, id"),
+    @Index(name = "idx_equipment_price_day", columnList = "price_per_day")
+})
 public class Equipment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -40,6 +46,12 @@ public class Equipment {
     
     @Column(name = "total_bookings")
     public Integer totalBookings = 0;
+
+    // Optimistic lock; the default backfills rows that predate the column
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    public Long version;
     
     @ElementCollection
     @CollectionTable(name = "equipment_specifications", joinColumns = @JoinColumn(name = "equipment_id"))
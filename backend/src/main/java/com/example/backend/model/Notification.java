@@ -5,7 +5,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_user_id", columnList = "user_id, id"),
+    @Index(name = "idx_notifications_user_read", columnList = "user_id, is_read")
+})
 public class Notification {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,4 +34,14 @@ public class Notification {
     
     @Column(name = "read_at")
     public LocalDateTime readAt;
+
+    public static Notification of(Long userId, String type, String title, String message, String link) {
+        Notification n = new Notification();
+        n.userId = userId;
+        n.type = type;
+        n.title = title;
+        n.message = message;
+        n.link = link;
+        return n;
+    }
 }
@@ -0,0 +1,40 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One operator's payments and refunds for one day, adjusted as payments change
+ */
+@Entity
+@Table(name = "operator_daily_earnings", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_operator_earnings_day", columnNames = {"operator_id", "earnings_day"})
+})
+public class OperatorDailyEarnings {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    public Long id;
+
+    @Column(name = "operator_id", nullable = false)
+    public Long operatorId;
+
+    @Column(name = "earnings_day", nullable = false)
+    public LocalDate day;
+
+    @Column(name = "gross_amount")
+    public double grossAmount;
+
+    @Column(name = "refund_amount")
+    public double refundAmount;
+
+    @Column(name = "payments_count")
+    public int paymentsCount;
+
+    @Column(name = "refunds_count")
+    public int refundsCount;
+
+    @Column(name = "updated_at")
+    public LocalDateTime updatedAt;
+}
@@ -1,11 +1,17 @@
 package com.example.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_payments_idempotency_key", columnNames = "idempotency_key"),
+    @UniqueConstraint(name = "uk_payments_transaction_id", columnNames = "transaction_id")
+}, indexes = {
+    @Index(name = "idx_payments_booking", columnList = "booking_id, id")
+})
 public class Payment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,6 +30,11 @@ public class Payment {
     
     @Column(name = "transaction_id")
     public String transactionId;
+
+    // Client Idempotency-Key (scoped to the user) or gateway transaction id; retries with it return this payment
+    @JsonIgnore
+    @Column(name = "idempotency_key", length = 150)
+    public String idempotencyKey;
     
     public String status;
     
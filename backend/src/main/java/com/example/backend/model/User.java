@@ -4,9 +4,16 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_role", columnList = "role, id"),
+    @Index(name = "idx_users_village", columnList = "village, id"),
+    @Index(name = "idx_users_active", columnList = "active, id"),
+    @Index(name = "idx_users_name_search", columnList = "name_search, id"),
+    @Index(name = "idx_users_email_search", columnList = "email_search, id")
+})
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -36,5 +43,21 @@ public class User {
     @Column(name = "upi_id")
     public String upiId; // UPI ID for operators to receive payments
 
+    // Lower-case copies kept on every write so admin prefix search can use an index
+    @JsonIgnore
+    @Column(name = "name_search")
+    public String nameSearch;
+
+    @JsonIgnore
+    @Column(name = "email_search")
+    public String emailSearch;
+
     public User() {}
+
+    @PrePersist
+    @PreUpdate
+    void syncSearch() {
+        nameSearch = name != null ? name.toLowerCase(Locale.ROOT) : null;
+        emailSearch = email != null ? email.toLowerCase(Locale.ROOT) : null;
+    }
 }
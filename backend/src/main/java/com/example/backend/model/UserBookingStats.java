@@ -0,0 +1,28 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-user booking counters, kept up to date on every booking status change
+ */
+@Entity
+@Table(name = "user_booking_stats")
+public class UserBookingStats {
+    @Id
+    @Column(name = "user_id")
+    public Long userId;
+
+    @Column(name = "active_count")
+    public int activeCount;
+
+    @Column(name = "overdue_count")
+    public int overdueCount;
+
+    @Column(name = "total_count")
+    public int totalCount;
+
+    @Column(name = "updated_at")
+    public LocalDateTime updatedAt;
+}
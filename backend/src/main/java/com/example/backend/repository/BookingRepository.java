@@ -2,9 +2,15 @@ package com.example.backend.repository;
 
 import com.example.backend.model.Booking;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
@@ -12,5 +18,34 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByOperatorId(Long operatorId);
     List<Booking> findByEquipmentId(Long equipmentId);
     List<Booking> findByStatus(String status);
+    List<Booking> findByStatusIn(Collection<String> statuses);
     List<Booking> findByEquipmentIdAndUserId(Long equipmentId, Long userId);
+    Optional<Booking> findFirstByEquipmentIdAndUserIdAndStatusIn(Long equipmentId, Long userId, Collection<String> statuses);
+    long countByUserId(Long userId);
+    long countByUserIdAndStatusIn(Long userId, Collection<String> statuses);
+
+    /** Rows of [status, count] */
+    @Query("SELECT b.status, COUNT(b) FROM Booking b GROUP BY b.status")
+    List<Object[]> countGroupedByStatus();
+
+    // Range queries over the typed start_at/end_at columns
+
+    /** Ids of bookings in the given statuses holding part of [start, end) on one equipment item */
+    @Query("SELECT b.id FROM Booking b WHERE b.equipmentId = :equipmentId AND b.status IN :statuses " +
+           "AND b.startAt < :end AND b.endAt > :start ORDER BY b.startAt")
+    List<Long> findOverlapping(@Param("equipmentId") Long equipmentId, @Param("statuses") Collection<String> statuses,
+                               @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    List<Booking> findByStatusInAndEndAtBefore(Collection<String> statuses, LocalDateTime cutoff);
+
+    /**
+     * Write a booking's closing state if it still has the status it was read with
+     * @return 1 if this caller closed it, 0 if something else changed it first
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.checkInTime = :checkInTime, b.checkOutTime = :checkOutTime, " +
+           "b.totalAmount = :totalAmount, b.updatedAt = :updatedAt WHERE b.id = :id AND b.status = :from")
+    int close(@Param("id") Long id, @Param("from") String from, @Param("status") String status,
+              @Param("checkInTime") LocalDateTime checkInTime, @Param("checkOutTime") LocalDateTime checkOutTime,
+              @Param("totalAmount") Double totalAmount, @Param("updatedAt") LocalDateTime updatedAt);
 }
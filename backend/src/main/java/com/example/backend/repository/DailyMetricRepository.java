@@ -0,0 +1,26 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.DailyMetric;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+@Repository
+public interface DailyMetricRepository extends JpaRepository<DailyMetric, Long> {
+
+    /**
+     * Add to an existing counter in place
+     * @return 0 if the counter has no row for that day yet
+     */
+    @Transactional
+    @Modifying
+    // Native: Hibernate renders "column + :double" as a cast H2 can't parse
+    @Query(nativeQuery = true, value =
+           "UPDATE daily_metrics SET metric_value = metric_value + :delta WHERE metric_day = :day AND metric = :metric")
+    int addTo(@Param("day") LocalDate day, @Param("metric") String metric, @Param("delta") double delta);
+}
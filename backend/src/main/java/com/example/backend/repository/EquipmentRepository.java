@@ -1,15 +1,56 @@
 package com.example.backend.repository;
 
 import com.example.backend.model.Equipment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface EquipmentRepository extends JpaRepository<Equipment, Long> {
+public interface EquipmentRepository extends JpaRepository<Equipment, Long>, EquipmentRepositoryCustom {
     List<Equipment> findByOperatorId(Long operatorId);
+    long countByOperatorId(Long operatorId);
     List<Equipment> findByCategory(String category);
     List<Equipment> findByAvailable(boolean available);
     boolean existsByName(String name);
+
+    /** Rows of [category, count] */
+    @Query("SELECT e.category, COUNT(e) FROM Equipment e GROUP BY e.category")
+    List<Object[]> countGroupedByCategory();
+
+    /**
+     * Equipment with its specifications already loaded, for responses written
+     * after the session that loaded it has closed (e.g. async scan results)
+     */
+    @EntityGraph(attributePaths = "specifications")
+    @Query("SELECT e FROM Equipment e WHERE e.id = :id")
+    Optional<Equipment> findWithSpecificationsById(@Param("id") Long id);
+
+    /**
+     * Load equipment and hold its row lock until the transaction ends, so
+     * bookings for one item are checked and written one at a time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Equipment e WHERE e.id = :id")
+    Optional<Equipment> lockById(@Param("id") Long id);
+
+    /**
+     * Mark equipment as borrowed if it is still available
+     * @return 1 if this caller took it, 0 if it was already out
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Equipment e SET e.available = false, e.totalBookings = COALESCE(e.totalBookings, 0) + 1, " +
+           "e.version = e.version + 1 WHERE e.id = :id AND e.available = true")
+    int claim(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Equipment e SET e.available = true, e.version = e.version + 1 WHERE e.id = :id AND e.available = false")
+    int release(@Param("id") Long id);
 }
@@ -0,0 +1,15 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.EquipmentSummary;
+
+import java.util.List;
+
+public interface EquipmentRepositoryCustom {
+
+    /**
+     * Keyset page of the catalog ordered by id. Only the filters that are non-null
+     * end up in the WHERE clause so each combination can use its own index.
+     */
+    List<EquipmentSummary> findCatalogPage(Long afterId, String category, Boolean available, Long operatorId,
+                                           Double minPrice, Double maxPrice, int limit);
+}
@@ -0,0 +1,48 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.EquipmentSummary;
+import com.example.backend.model.Equipment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EquipmentRepositoryImpl implements EquipmentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<EquipmentSummary> findCatalogPage(Long afterId, String category, Boolean available, Long operatorId,
+                                                  Double minPrice, Double maxPrice, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EquipmentSummary> query = cb.createQuery(EquipmentSummary.class);
+        Root<Equipment> e = query.from(Equipment.class);
+        Path<Object> location = e.get("location");
+
+        List<Predicate> where = new ArrayList<>();
+        if (afterId != null) where.add(cb.greaterThan(e.get("id"), afterId));
+        if (category != null) where.add(cb.equal(e.get("category"), category));
+        if (available != null) where.add(cb.equal(e.get("available"), available));
+        if (operatorId != null) where.add(cb.equal(e.get("operatorId"), operatorId));
+        if (minPrice != null) where.add(cb.greaterThanOrEqualTo(e.get("pricePerDay"), minPrice));
+        if (maxPrice != null) where.add(cb.lessThanOrEqualTo(e.get("pricePerDay"), maxPrice));
+
+        query.select(cb.construct(EquipmentSummary.class,
+                e.get("id"), e.get("name"), e.get("category"), e.get("pricePerDay"), e.get("pricePerHour"),
+                e.get("available"), e.get("operatorId"), e.get("operatorName"), e.get("image"), e.get("rating"),
+                location.get("lat"), location.get("lng"), location.get("address")))
+            .where(where.toArray(new Predicate[0]))
+            .orderBy(cb.asc(e.get("id")));
+
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.backend.repository;
 
 import com.example.backend.model.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,4 +18,24 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findByUserId(Long userId);
     List<Notification> findByUserIdAndRead(Long userId, boolean read);
     long countByUserIdAndRead(Long userId, boolean read);
+    List<Notification> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Pageable pageable);
+
+    // Newest first, for cursor pagination
+    List<Notification> findByUserIdOrderByIdDesc(Long userId, Pageable pageable);
+    List<Notification> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long id, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true, n.readAt = :now WHERE n.userId = :userId AND n.read = false")
+    int markAllRead(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true, n.readAt = :now WHERE n.userId = :userId AND n.read = false AND n.id IN :ids")
+    int markRead(@Param("userId") Long userId, @Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.userId = :userId AND n.createdAt < :cutoff")
+    int deleteOlderThan(@Param("userId") Long userId, @Param("cutoff") LocalDateTime cutoff);
 }
@@ -0,0 +1,34 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.OperatorDailyEarnings;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OperatorDailyEarningsRepository extends JpaRepository<OperatorDailyEarnings, Long> {
+    List<OperatorDailyEarnings> findByOperatorIdAndDayBetweenOrderByDayAsc(Long operatorId, LocalDate from, LocalDate to);
+
+    /**
+     * Add to an existing bucket in place
+     * @return 0 if the operator has no bucket for that day yet
+     */
+    @Transactional
+    @Modifying
+    // Native: Hibernate renders "column + :double" as a cast H2 can't parse
+    @Query(nativeQuery = true, value =
+           "UPDATE operator_daily_earnings SET gross_amount = gross_amount + :gross, refund_amount = refund_amount + :refund, " +
+           "payments_count = payments_count + :payments, refunds_count = refunds_count + :refunds, updated_at = :now " +
+           "WHERE operator_id = :operatorId AND earnings_day = :day")
+    int addTo(@Param("operatorId") Long operatorId, @Param("day") LocalDate day,
+              @Param("gross") double gross, @Param("refund") double refund,
+              @Param("payments") int payments, @Param("refunds") int refunds,
+              @Param("now") LocalDateTime now);
+}
@@ -10,6 +10,8 @@ import java.util.Optional;
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByUserId(Long userId);
-    Optional<Payment> findByBookingId(Long bookingId);
+    // A booking can have several payments (e.g. a fine after the rental); this is the latest
+    Optional<Payment> findFirstByBookingIdOrderByIdDesc(Long bookingId);
+    Optional<Payment> findByIdempotencyKey(String idempotencyKey);
     Optional<Payment> findByTransactionId(String transactionId);
 }
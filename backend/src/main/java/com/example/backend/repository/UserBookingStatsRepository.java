@@ -0,0 +1,37 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.UserBookingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface UserBookingStatsRepository extends JpaRepository<UserBookingStats, Long> {
+
+    /**
+     * Add to a user's counters in place, so changes made on different replicas never overwrite each other
+     * @return 0 if the user has no row yet
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserBookingStats s SET s.activeCount = s.activeCount + :active, s.overdueCount = s.overdueCount + :overdue, " +
+           "s.totalCount = s.totalCount + :total, s.updatedAt = :now WHERE s.userId = :userId")
+    int addTo(@Param("userId") Long userId, @Param("active") int active, @Param("overdue") int overdue,
+              @Param("total") int total, @Param("now") LocalDateTime now);
+
+    /**
+     * Create a user's row; unlike save() this fails instead of overwriting a row another replica just created
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value =
+           "INSERT INTO user_booking_stats (user_id, active_count, overdue_count, total_count, updated_at) " +
+           "VALUES (:userId, :active, :overdue, :total, :now)")
+    int insert(@Param("userId") Long userId, @Param("active") int active, @Param("overdue") int overdue,
+               @Param("total") int total, @Param("now") LocalDateTime now);
+}
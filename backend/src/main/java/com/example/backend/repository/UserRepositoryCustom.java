@@ -0,0 +1,16 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.UserSummary;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Keyset page of users ordered by id. Only the filters that are non-null
+     * end up in the WHERE clause so each combination can use its own index.
+     * search matches the start of the name or email, ignoring case, through
+     * the lower-case name_search/email_search columns and their indexes.
+     */
+    List<UserSummary> findAdminPage(Long afterId, String role, String village, Boolean active, String search, int limit);
+}
@@ -0,0 +1,71 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.UserSummary;
+import com.example.backend.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserSummary> findAdminPage(Long afterId, String role, String village, Boolean active, String search, int limit) {
+        if (search == null) {
+            return page(afterId, role, village, active, null, null, limit);
+        }
+        // One query per search column, each served by its own (column, id) index, merged by id
+        String prefix = escapeLike(search.toLowerCase(Locale.ROOT)) + "%";
+        TreeMap<Long, UserSummary> merged = new TreeMap<>();
+        for (UserSummary row : page(afterId, role, village, active, "nameSearch", prefix, limit)) merged.put(row.id(), row);
+        for (UserSummary row : page(afterId, role, village, active, "emailSearch", prefix, limit)) merged.put(row.id(), row);
+        List<UserSummary> rows = new ArrayList<>(merged.values());
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+
+    private List<UserSummary> page(Long afterId, String role, String village, Boolean active,
+                                   String searchField, String prefix, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserSummary> query = cb.createQuery(UserSummary.class);
+        Root<User> u = query.from(User.class);
+
+        List<Predicate> where = new ArrayList<>();
+        if (afterId != null) where.add(cb.greaterThan(u.get("id"), afterId));
+        // Seeded accounts store roles upper case, registered ones lower case
+        if (role != null) where.add(u.get("role").in(role.toLowerCase(Locale.ROOT), role.toUpperCase(Locale.ROOT)));
+        if (village != null) where.add(cb.equal(u.get("village"), village));
+        if (active != null) where.add(cb.equal(u.get("active"), active));
+        if (searchField != null) where.add(cb.like(u.get(searchField), prefix, LIKE_ESCAPE));
+
+        query.select(cb.construct(UserSummary.class,
+                u.get("id"), u.get("name"), u.get("email"), u.get("phone"), u.get("role"),
+                u.get("village"), u.get("active"), u.get("joinedAt")))
+            .where(where.toArray(new Predicate[0]))
+            .orderBy(cb.asc(u.get("id")));
+
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) sb.append(LIKE_ESCAPE);
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
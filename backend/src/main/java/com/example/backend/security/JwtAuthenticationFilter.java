@@ -17,6 +17,8 @@ import java.util.List;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String STREAM_PATH = "/notifications/stream";
+
     private final JwtUtil jwtUtil;
 
     public JwtAuthenticationFilter(JwtUtil jwtUtil) {
@@ -28,30 +30,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         
         final String authorizationHeader = request.getHeader("Authorization");
-
-        String email = null;
-        String jwt = null;
-
-        // Extract JWT token from Authorization header
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            try {
-                email = jwtUtil.extractEmail(jwt);
-            } catch (Exception e) {
-                // Invalid token, continue without authentication
-            }
+        String jwt = authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                ? authorizationHeader.substring(7) : null;
+        // Browser EventSource can't set headers, so the notification stream may pass the token as a parameter
+        if (jwt == null && STREAM_PATH.equals(request.getServletPath())) {
+            jwt = request.getParameter("token");
         }
 
-        // Validate token and set authentication context
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtil.validateToken(jwt, email)) {
-                Long userId = jwtUtil.extractUserId(jwt);
-                String role = jwtUtil.extractRole(jwt);
-                
+        // Verify the JWT once
+        if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            VerifiedToken token = jwtUtil.verify(jwt);
+
+            // Invalid or expired tokens continue without authentication
+            if (token != null && token.role() != null) {
                 // Create authentication token with role
-                List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()));
+                List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + token.role().toUpperCase()));
                 UsernamePasswordAuthenticationToken authToken = 
-                    new UsernamePasswordAuthenticationToken(userId, null, authorities);
+                    new UsernamePasswordAuthenticationToken(token.userId(), null, authorities);
                 
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -0,0 +1,213 @@
+package com.example.backend.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import com.example.backend.util.KeyFiles;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * HMAC signing keys shared by every backend replica through a key file.
+ *
+ * The newest key signs new tokens; older keys keep verifying until every token
+ * they signed has expired, so rotation and rolling restarts never log users out.
+ * Each replica re-reads the file on a schedule, and on an unknown "kid" when
+ * the file has changed since it was last read.
+ */
+@Component
+public class JwtKeyRing extends SigningKeyResolverAdapter {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    public record SigningKey(String kid, SecretKey key, long createdAt) {}
+
+    private final Path keyFile;
+    private final long rotationMillis;
+    private final long retireMillis;
+
+    private volatile List<SigningKey> keys = List.of();
+    private volatile FileTime loadedModified;
+
+    public JwtKeyRing(@Value("${jwt.keyring.path:./data/jwt-keyring.properties}") String keyFile,
+                      @Value("${jwt.keyring.rotation-hours:168}") long rotationHours,
+                      @Value("${jwt.keyring.refresh-ms:300000}") long refreshMillis) {
+        this.keyFile = Path.of(keyFile).toAbsolutePath();
+        this.rotationMillis = rotationHours * 60 * 60 * 1000;
+        // Other replicas sign with a key until their next refresh after its successor
+        // appears, and those tokens stay valid for their whole lifetime after that
+        this.retireMillis = refreshMillis + JwtUtil.JWT_EXPIRATION;
+    }
+
+    @PostConstruct
+    public void init() {
+        refresh();
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("No JWT signing key available in " + keyFile);
+        }
+    }
+
+    /**
+     * Pick up keys written by other replicas and rotate if the newest key is due
+     */
+    @Scheduled(fixedDelayString = "${jwt.keyring.refresh-ms:300000}", initialDelayString = "${jwt.keyring.refresh-ms:300000}")
+    public void refresh() {
+        reload();
+        SigningKey newest = keys.isEmpty() ? null : keys.get(0);
+        if (newest == null || System.currentTimeMillis() - newest.createdAt() >= rotationMillis) {
+            rotate();
+        }
+    }
+
+    /**
+     * Key used to sign new tokens
+     */
+    public SigningKey active() {
+        return keys.get(0);
+    }
+
+    public SigningKey find(String kid) {
+        for (SigningKey key : keys) {
+            if (key.kid().equals(kid)) return key;
+        }
+        return null;
+    }
+
+    // jjwt 0.11's resolver API is declared with a raw JwsHeader
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String kid = header.getKeyId();
+        if (kid == null) {
+            throw new SignatureException("Token has no key id");
+        }
+        SigningKey key = find(kid);
+        if (key == null && changedSinceLoad()) {
+            // Another replica rotated since we last read the file. Made-up key ids
+            // cost one stat each, never a re-read of an unchanged file.
+            reload();
+            key = find(kid);
+        }
+        if (key == null) {
+            throw new SignatureException("Unknown signing key id");
+        }
+        return key.key();
+    }
+
+    private boolean changedSinceLoad() {
+        try {
+            return !Files.getLastModifiedTime(keyFile).equals(loadedModified);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void reload() {
+        if (!Files.exists(keyFile)) return;
+        try {
+            FileTime modified = Files.getLastModifiedTime(keyFile);
+            keys = read();
+            loadedModified = modified;
+        } catch (IOException e) {
+            // Keep serving with the keys already in memory
+            log.warn("Could not read JWT key ring {}: {}", keyFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Add a fresh key and drop retired ones. The file lock plus re-read makes
+     * concurrent rotations on several replicas collapse into one new key.
+     */
+    private synchronized void rotate() {
+        try {
+            KeyFiles.withLock(keyFile, () -> {
+                List<SigningKey> current = Files.exists(keyFile) ? read() : new ArrayList<>();
+                long now = System.currentTimeMillis();
+
+                if (current.isEmpty() || now - current.get(0).createdAt() >= rotationMillis) {
+                    current.add(0, generate(now));
+                    log.info("Rotated JWT signing key, new kid {}", current.get(0).kid());
+                }
+                write(retain(current, now));
+                reload();
+                return null;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rotate JWT key ring " + keyFile, e);
+        }
+    }
+
+    /**
+     * Keys still needed at now, newest first. A key is retired once its successor
+     * has existed for retireMillis: by then every replica has switched to the
+     * successor and the last token the old key signed has expired.
+     */
+    private List<SigningKey> retain(List<SigningKey> newestFirst, long now) {
+        List<SigningKey> kept = new ArrayList<>();
+        kept.add(newestFirst.get(0));
+        for (int i = 1; i < newestFirst.size(); i++) {
+            SigningKey successor = newestFirst.get(i - 1);
+            if (now - successor.createdAt() >= retireMillis) break;
+            kept.add(newestFirst.get(i));
+        }
+        return kept;
+    }
+
+    private List<SigningKey> read() throws IOException {
+        Properties props = KeyFiles.read(keyFile);
+        List<SigningKey> loaded = new ArrayList<>();
+        for (String name : props.stringPropertyNames()) {
+            if (!name.startsWith("key.") || !name.endsWith(".secret")) continue;
+            String kid = name.substring(4, name.length() - 7);
+            byte[] secret = Base64.getDecoder().decode(props.getProperty(name));
+            long created = Long.parseLong(props.getProperty("key." + kid + ".created", "0"));
+            loaded.add(new SigningKey(kid, new SecretKeySpec(secret, ALGORITHM), created));
+        }
+        loaded.sort(Comparator.comparingLong(SigningKey::createdAt).reversed());
+        return loaded;
+    }
+
+    private void write(List<SigningKey> ring) throws IOException {
+        Properties props = new Properties();
+        for (SigningKey key : ring) {
+            props.setProperty("key." + key.kid() + ".secret", Base64.getEncoder().encodeToString(key.key().getEncoded()));
+            props.setProperty("key." + key.kid() + ".created", Long.toString(key.createdAt()));
+        }
+        KeyFiles.write(keyFile, props, "JWT signing keys - keep private and identical on every replica");
+    }
+
+    private static SigningKey generate(long now) {
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance(ALGORITHM);
+            generator.init(256);
+            String kid = UUID.randomUUID().toString().substring(0, 8);
+            return new SigningKey(kid, generator.generateKey(), now);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+}
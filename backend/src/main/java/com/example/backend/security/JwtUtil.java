@@ -1,25 +1,71 @@
 package com.example.backend.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
     
-    // Secret key for signing JWT tokens (in production, use environment variable)
-    private final Key SECRET_KEY = Keys.secretKeyFor(SignatureAlgorithm.HS256);
-    
     // Token expiration: 24 hours
-    private final long JWT_EXPIRATION = 24 * 60 * 60 * 1000;
+    static final long JWT_EXPIRATION = 24 * 60 * 60 * 1000;
+
+    // Upper bound on remembered tokens; roughly one entry per active session
+    private static final int VERIFIED_CACHE_SIZE = 10_000;
+
+    // Signing keys, persisted and shared between replicas
+    private final JwtKeyRing keyRing;
+
+    // Parsers are immutable and thread-safe, so build it once
+    private final JwtParser parser;
+
+    // Tokens whose signature already checked out, keyed by SHA-256 of the token.
+    // Lock-free on the request path; trimmed by expiry when it grows past its bound.
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>(256);
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    // Signature checks on cache misses, by result; cache hits are only counted
+    private final Timer parseValid;
+    private final Timer parseInvalid;
+    private final Counter cacheHits;
+
+    public JwtUtil(JwtKeyRing keyRing, MeterRegistry meterRegistry) {
+        this.keyRing = keyRing;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(keyRing)
+                .build();
+        this.parseValid = parseTimer(meterRegistry, "valid");
+        this.parseInvalid = parseTimer(meterRegistry, "invalid");
+        this.cacheHits = Counter.builder("jwt.verify.cache.hits")
+                .description("Tokens verified from the cache without parsing")
+                .register(meterRegistry);
+    }
+
+    private static Timer parseTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("jwt.parse")
+                .description("Signature check and claims parsing of tokens not in the cache")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     public String generateToken(Long userId, String email, String role) {
         Map<String, Object> claims = new HashMap<>();
@@ -27,15 +73,76 @@ public class JwtUtil {
         claims.put("email", email);
         claims.put("role", role);
         
+        JwtKeyRing.SigningKey signingKey = keyRing.active();
         return Jwts.builder()
+                .setHeaderParam("kid", signingKey.kid())
                 .setClaims(claims)
                 .setSubject(email)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION))
-                .signWith(SECRET_KEY)
+                .signWith(signingKey.key())
                 .compact();
     }
 
+    /**
+     * Verify a token once and return its claims, or null if it is malformed,
+     * forged or expired. Repeat calls for the same token are served from cache
+     * until the token expires.
+     */
+    public VerifiedToken verify(String token) {
+        long now = System.currentTimeMillis();
+        String cacheKey = hash(token);
+
+        VerifiedToken cached = verifiedTokens.get(cacheKey);
+        if (cached != null) {
+            cacheHits.increment();
+            if (!cached.isExpired(now)) return cached;
+            verifiedTokens.remove(cacheKey, cached);
+            return null;
+        }
+
+        Claims claims;
+        long started = System.nanoTime();
+        try {
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            parseInvalid.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return null;
+        }
+        parseValid.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (claims.getSubject() == null || claims.getExpiration() == null) return null;
+
+        VerifiedToken verified = new VerifiedToken(
+                claims.get("userId", Long.class),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.getExpiration().getTime()
+        );
+        if (verified.isExpired(now)) return null;
+
+        verifiedTokens.put(cacheKey, verified);
+        if (verifiedTokens.size() > VERIFIED_CACHE_SIZE) trim(now);
+        return verified;
+    }
+
+    /**
+     * Drop expired tokens; if that isn't enough, drop arbitrary ones down to 90%
+     * of the bound. A dropped token is simply verified again on its next use.
+     */
+    private void trim(long now) {
+        if (!trimming.compareAndSet(false, true)) return;
+        try {
+            verifiedTokens.values().removeIf(token -> token.isExpired(now));
+            Iterator<String> keys = verifiedTokens.keySet().iterator();
+            while (verifiedTokens.size() > VERIFIED_CACHE_SIZE * 9 / 10 && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            trimming.set(false);
+        }
+    }
+
     public String extractEmail(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -58,11 +165,7 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public Boolean isTokenExpired(String token) {
@@ -70,7 +173,16 @@ public class JwtUtil {
     }
 
     public Boolean validateToken(String token, String email) {
-        final String tokenEmail = extractEmail(token);
-        return (tokenEmail.equals(email) && !isTokenExpired(token));
+        VerifiedToken verified = verify(token);
+        return verified != null && verified.email().equals(email);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
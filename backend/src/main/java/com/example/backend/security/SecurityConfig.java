@@ -1,5 +1,7 @@
 package com.example.backend.security;
 
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -45,6 +47,9 @@ public class SecurityConfig {
                 .requestMatchers(new AntPathRequestMatcher("/auth/register")).permitAll()
                 .requestMatchers(new AntPathRequestMatcher("/h2-console/**")).permitAll() // Allow H2 console access
                 .requestMatchers(new AntPathRequestMatcher("/health")).permitAll() // Allow health check
+                .requestMatchers(new AntPathRequestMatcher("/error")).permitAll() // Let error statuses through instead of 403
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // Completion of streams already authorized on the way in
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).permitAll() // Actuator, only served on the loopback management port
                 
                 // Equipment endpoints - require authentication for reads and authenticated write
                 // Previously GET was permitted to all; change to authenticated so equipment
@@ -77,6 +82,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(List.of("http://localhost:5173", "http://localhost:3000", "http://localhost:3001", "http://localhost:3002", "http://localhost:5174"));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
+        configuration.setExposedHeaders(List.of("Idempotent-Replayed", "Retry-After"));
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
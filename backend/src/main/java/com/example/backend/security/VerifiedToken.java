@@ -0,0 +1,11 @@
+package com.example.backend.security;
+
+/**
+ * Claims the filter needs from a JWT whose signature has already been checked.
+ */
+public record VerifiedToken(Long userId, String email, String role, long expiresAtMillis) {
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
@@ -0,0 +1,417 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Booking;
+import com.example.backend.model.DailyMetric;
+import com.example.backend.model.Equipment;
+import com.example.backend.model.Payment;
+import com.example.backend.model.User;
+import com.example.backend.repository.BookingRepository;
+import com.example.backend.repository.DailyMetricRepository;
+import com.example.backend.repository.EquipmentRepository;
+import com.example.backend.repository.PaymentRepository;
+import com.example.backend.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Site-wide daily counters for the admin analytics.
+ *
+ * Every booking, payment and registration event adds to named counters in a
+ * bucket for its day. All buckets live in memory, so a date range is answered
+ * by walking one map entry per day; changes are also queued and added to the
+ * daily_metrics table every metrics.flush-ms. The table is the shared total:
+ * flushes only add deltas to it, and every metrics.reload-ms the buckets and
+ * per-status booking counts are read back from the database, so every replica
+ * answers with what all of them recorded, at most one reload behind.
+ * The first start on an existing database builds the buckets from its bookings,
+ * payments and users once.
+ *
+ * Counters per day:
+ * - bookings.created, and bookings.status.{status} for bookings entering that status
+ * - revenue.gross/payments.count on the payment day, revenue.refunds/refunds.count on the refund day
+ * - users.new
+ * - usage.hours.{category}: hours returned equipment was out, split over the days it was out
+ */
+@Service
+public class AdminMetricsService {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminMetricsService.class);
+
+    public static final String BOOKINGS_CREATED = "bookings.created";
+    public static final String BOOKINGS_STATUS = "bookings.status.";
+    public static final String REVENUE_GROSS = "revenue.gross";
+    public static final String REVENUE_REFUNDS = "revenue.refunds";
+    public static final String PAYMENTS_COUNT = "payments.count";
+    public static final String REFUNDS_COUNT = "refunds.count";
+    public static final String USERS_NEW = "users.new";
+    public static final String USAGE_HOURS = "usage.hours.";
+
+    public static final String ACTIVE_STATUS = "in-progress";
+    static final Set<String> RETURNED_STATUSES = Set.of("completed", "overdue-returned");
+    static final String UNCATEGORIZED = "uncategorized";
+
+    private static final double HOURS_PER_DAY = 24.0;
+
+    public record Day(LocalDate day, long bookingsCreated, Map<String, Long> bookingsByStatus,
+                      double revenue, double refunds, long newUsers, Map<String, Double> usageHours) {}
+
+    /**
+     * @param utilization Hours out divided by the hours the category's items could have been out
+     */
+    public record CategoryUsage(String category, long items, double hours, double utilization) {}
+
+    public record Report(LocalDate startDate, LocalDate endDate, long bookingsCreated, Map<String, Long> bookingsByStatus,
+                         double grossRevenue, double refundAmount, double netRevenue, long paymentsCount, long refundsCount,
+                         long newUsers, List<CategoryUsage> utilization, List<Day> days) {}
+
+    private record Bucket(LocalDate day, String metric) {}
+
+    private final DailyMetricRepository metricRepository;
+    private final BookingRepository bookingRepository;
+    private final PaymentRepository paymentRepository;
+    private final UserRepository userRepository;
+    private final EquipmentRepository equipmentRepository;
+
+    // Replaced on each reload
+    private volatile NavigableMap<LocalDate, Map<String, Double>> days = new ConcurrentSkipListMap<>();
+    // Added to days but not yet to the table
+    private final Map<Bucket, Double> pending = new ConcurrentHashMap<>();
+    // Bookings per current status; read from the bookings table on each reload
+    private volatile Map<String, Long> statusCounts = new ConcurrentHashMap<>();
+    private final Map<Long, String> categories = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public AdminMetricsService(DailyMetricRepository metricRepository, BookingRepository bookingRepository,
+                               PaymentRepository paymentRepository, UserRepository userRepository,
+                               EquipmentRepository equipmentRepository) {
+        this.metricRepository = metricRepository;
+        this.bookingRepository = bookingRepository;
+        this.paymentRepository = paymentRepository;
+        this.userRepository = userRepository;
+        this.equipmentRepository = equipmentRepository;
+    }
+
+    /**
+     * Counters between two days, inclusive. Either end may be null: the range then
+     * starts at the first day with any activity, or ends today.
+     */
+    public Report report(LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : days.isEmpty() ? end : days.firstKey();
+        if (start.isAfter(end)) start = end;
+
+        long created = 0, payments = 0, refundCount = 0, users = 0;
+        double gross = 0, refunds = 0;
+        Map<String, Long> byStatus = new TreeMap<>();
+        Map<String, Double> hours = new TreeMap<>();
+        List<Day> series = new ArrayList<>();
+        for (Map.Entry<LocalDate, Map<String, Double>> entry : days.subMap(start, true, end, true).entrySet()) {
+            Day day = toDay(entry.getKey(), entry.getValue());
+            series.add(day);
+            created += day.bookingsCreated();
+            gross += day.revenue();
+            refunds += day.refunds();
+            users += day.newUsers();
+            payments += count(entry.getValue().get(PAYMENTS_COUNT));
+            refundCount += count(entry.getValue().get(REFUNDS_COUNT));
+            day.bookingsByStatus().forEach((status, n) -> byStatus.merge(status, n, Long::sum));
+            day.usageHours().forEach((category, h) -> hours.merge(category, h, Double::sum));
+        }
+
+        long spanDays = ChronoUnit.DAYS.between(start, end) + 1;
+        Map<String, Long> items = new HashMap<>();
+        for (Object[] row : equipmentRepository.countGroupedByCategory()) {
+            items.merge(category((String) row[0]), (Long) row[1], Long::sum);
+        }
+        Map<String, CategoryUsage> utilization = new TreeMap<>();
+        items.forEach((category, n) -> utilization.put(category, usage(category, n, hours.getOrDefault(category, 0.0), spanDays)));
+        hours.forEach((category, h) -> utilization.putIfAbsent(category, usage(category, 0, h, spanDays)));
+
+        return new Report(start, end, created, byStatus, round(gross), round(refunds), round(gross - refunds),
+                payments, refundCount, users, new ArrayList<>(utilization.values()), series);
+    }
+
+    public Day today() {
+        LocalDate today = LocalDate.now();
+        return toDay(today, days.getOrDefault(today, Map.of()));
+    }
+
+    /**
+     * Bookings per status right now
+     */
+    public Map<String, Long> bookingsByStatus() {
+        return new TreeMap<>(statusCounts);
+    }
+
+    public long bookingsWithStatus(String status) {
+        return statusCounts.getOrDefault(status, 0L);
+    }
+
+    public long totalBookings() {
+        long total = 0;
+        for (long n : statusCounts.values()) total += n;
+        return total;
+    }
+
+    /**
+     * Forget an item's cached category after it was edited or deleted
+     */
+    public void evictEquipment(Long equipmentId) {
+        if (equipmentId != null) categories.remove(equipmentId);
+    }
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        Booking b = event.booking();
+        String previous = event.previousStatus();
+        if (b.status != null && b.status.equals(previous)) return;
+
+        LocalDate today = LocalDate.now();
+        if (event.isNew()) add(dayOf(b.createdAt), BOOKINGS_CREATED, 1);
+        if (b.status != null) add(today, BOOKINGS_STATUS + b.status, 1);
+
+        if (loaded) {
+            if (previous != null) statusCounts.merge(previous, -1L, (n, d) -> n + d != 0 ? n + d : null);
+            if (b.status != null) statusCounts.merge(b.status, 1L, Long::sum);
+        }
+
+        if (RETURNED_STATUSES.contains(b.status) && !RETURNED_STATUSES.contains(previous)) {
+            splitUsage(categoryOf(b.equipmentId), b, LocalDateTime.now(), this::add);
+        }
+    }
+
+    @EventListener
+    public void onPaymentChanged(PaymentChangedEvent event) {
+        Payment p = event.payment();
+        if (OperatorEarningsService.COMPLETED.equals(p.status) && event.previousStatus() == null) {
+            LocalDate day = dayOf(p.paymentDate);
+            add(day, REVENUE_GROSS, amount(p.amount));
+            add(day, PAYMENTS_COUNT, 1);
+        } else if (OperatorEarningsService.REFUNDED.equals(p.status) && !OperatorEarningsService.REFUNDED.equals(event.previousStatus())) {
+            LocalDate day = dayOf(p.refundDate);
+            add(day, REVENUE_REFUNDS, amount(p.refundAmount));
+            add(day, REFUNDS_COUNT, 1);
+        }
+    }
+
+    @EventListener
+    public void onUserRegistered(UserRegisteredEvent event) {
+        add(dayOf(event.user().joinedAt), USERS_NEW, 1);
+    }
+
+    /**
+     * Load the buckets, building them from existing data on the first start
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (metricRepository.count() == 0) backfill();
+        reload();
+        loaded = true;
+        log.info("Loaded admin metrics for {} day(s)", days.size());
+    }
+
+    /**
+     * Replace the buckets with the table plus this instance's unflushed changes,
+     * picking up what other replicas have flushed since
+     */
+    @Scheduled(fixedDelayString = "${metrics.reload-ms:60000}", initialDelayString = "${metrics.reload-ms:60000}")
+    public synchronized void reload() {
+        NavigableMap<LocalDate, Map<String, Double>> fresh = new ConcurrentSkipListMap<>();
+        for (DailyMetric row : metricRepository.findAll()) {
+            fresh.computeIfAbsent(row.day, d -> new ConcurrentHashMap<>()).merge(row.metric, row.value, Double::sum);
+        }
+        // Flushes hold the same lock, so nothing moves from pending to the table meanwhile
+        pending.forEach((bucket, delta) ->
+                fresh.computeIfAbsent(bucket.day(), d -> new ConcurrentHashMap<>()).merge(bucket.metric(), delta, Double::sum));
+
+        Map<String, Long> counts = new ConcurrentHashMap<>();
+        for (Object[] row : bookingRepository.countGroupedByStatus()) {
+            if (row[0] != null) counts.put((String) row[0], (Long) row[1]);
+        }
+        days = fresh;
+        statusCounts = counts;
+    }
+
+    /**
+     * Write queued counter changes to the table
+     */
+    @Scheduled(fixedDelayString = "${metrics.flush-ms:5000}", initialDelayString = "${metrics.flush-ms:5000}")
+    @PreDestroy
+    public synchronized void flush() {
+        for (Bucket bucket : new ArrayList<>(pending.keySet())) {
+            Double delta = pending.remove(bucket);
+            if (delta == null || delta == 0.0) continue;
+            try {
+                persist(bucket, delta);
+            } catch (RuntimeException e) {
+                // Keep it for the next flush
+                pending.merge(bucket, delta, Double::sum);
+                log.warn("Could not write admin metrics, will retry: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void persist(Bucket bucket, double delta) {
+        if (metricRepository.addTo(bucket.day(), bucket.metric(), delta) > 0) return;
+        DailyMetric row = new DailyMetric();
+        row.day = bucket.day();
+        row.metric = bucket.metric();
+        row.value = delta;
+        try {
+            metricRepository.save(row);
+        } catch (DataIntegrityViolationException e) {
+            metricRepository.addTo(bucket.day(), bucket.metric(), delta);
+        }
+    }
+
+    private void add(LocalDate day, String metric, double delta) {
+        days.computeIfAbsent(day, d -> new ConcurrentHashMap<>()).merge(metric, delta, Double::sum);
+        pending.merge(new Bucket(day, metric), delta, Double::sum);
+    }
+
+    private interface Sink {
+        void add(LocalDate day, String metric, double delta);
+    }
+
+    /**
+     * Hours a returned booking had its equipment out, per calendar day. Bookings
+     * returned through the scanner have check-out/check-in times; others fall back
+     * to the booked range, ending no later than now.
+     */
+    private static void splitUsage(String category, Booking b, LocalDateTime now, Sink sink) {
+        LocalDateTime from = b.checkOutTime != null ? b.checkOutTime : b.start();
+        LocalDateTime to = b.checkInTime;
+        if (to == null) {
+            to = b.end();
+            if (to == null || to.isAfter(now)) to = now;
+        }
+        if (from == null || !to.isAfter(from)) return;
+
+        String metric = USAGE_HOURS + category;
+        LocalDateTime cursor = from;
+        while (cursor.isBefore(to)) {
+            LocalDateTime midnight = cursor.toLocalDate().plusDays(1).atStartOfDay();
+            LocalDateTime next = midnight.isBefore(to) ? midnight : to;
+            long seconds = Duration.between(cursor, next).toSeconds();
+            if (seconds > 0) sink.add(cursor.toLocalDate(), metric, seconds / 3600.0);
+            cursor = next;
+        }
+    }
+
+    private void backfill() {
+        Map<Bucket, Double> rows = new HashMap<>();
+        Sink sink = (day, metric, delta) -> rows.merge(new Bucket(day, metric), delta, Double::sum);
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<Long, String> categoryById = new HashMap<>();
+        for (Equipment e : equipmentRepository.findAll()) categoryById.put(e.id, category(e.category));
+
+        List<Booking> bookings = bookingRepository.findAll();
+        for (Booking b : bookings) {
+            sink.add(dayOf(b.createdAt), BOOKINGS_CREATED, 1);
+            // Only the current status is known; count it on the day of the last change
+            if (b.status != null) sink.add(dayOf(b.updatedAt != null ? b.updatedAt : b.createdAt), BOOKINGS_STATUS + b.status, 1);
+            if (RETURNED_STATUSES.contains(b.status)) {
+                splitUsage(categoryById.getOrDefault(b.equipmentId, UNCATEGORIZED), b, now, sink);
+            }
+        }
+        List<Payment> payments = paymentRepository.findAll();
+        for (Payment p : payments) {
+            if (OperatorEarningsService.COMPLETED.equals(p.status) || OperatorEarningsService.REFUNDED.equals(p.status)) {
+                sink.add(dayOf(p.paymentDate), REVENUE_GROSS, amount(p.amount));
+                sink.add(dayOf(p.paymentDate), PAYMENTS_COUNT, 1);
+            }
+            if (OperatorEarningsService.REFUNDED.equals(p.status)) {
+                sink.add(dayOf(p.refundDate), REVENUE_REFUNDS, amount(p.refundAmount));
+                sink.add(dayOf(p.refundDate), REFUNDS_COUNT, 1);
+            }
+        }
+        List<User> users = userRepository.findAll();
+        for (User u : users) sink.add(dayOf(u.joinedAt), USERS_NEW, 1);
+
+        List<DailyMetric> entities = new ArrayList<>(rows.size());
+        rows.forEach((bucket, value) -> {
+            DailyMetric row = new DailyMetric();
+            row.day = bucket.day();
+            row.metric = bucket.metric();
+            row.value = value;
+            entities.add(row);
+        });
+        try {
+            metricRepository.saveAll(entities);
+        } catch (DataIntegrityViolationException e) {
+            // Another replica starting at the same time built them first
+            log.info("Admin metric buckets were built by another instance");
+            return;
+        }
+        log.info("Built {} admin metric bucket(s) from {} booking(s), {} payment(s) and {} user(s)",
+                entities.size(), bookings.size(), payments.size(), users.size());
+    }
+
+    private String categoryOf(Long equipmentId) {
+        if (equipmentId == null) return UNCATEGORIZED;
+        String cached = categories.get(equipmentId);
+        if (cached != null) return cached;
+        String category = equipmentRepository.findById(equipmentId).map(e -> category(e.category)).orElse(UNCATEGORIZED);
+        categories.put(equipmentId, category);
+        return category;
+    }
+
+    private static Day toDay(LocalDate day, Map<String, Double> counters) {
+        Map<String, Long> byStatus = new TreeMap<>();
+        Map<String, Double> hours = new TreeMap<>();
+        counters.forEach((metric, value) -> {
+            if (metric.startsWith(BOOKINGS_STATUS)) byStatus.put(metric.substring(BOOKINGS_STATUS.length()), count(value));
+            else if (metric.startsWith(USAGE_HOURS)) hours.put(metric.substring(USAGE_HOURS.length()), round(value));
+        });
+        return new Day(day, count(counters.get(BOOKINGS_CREATED)), byStatus,
+                round(amount(counters.get(REVENUE_GROSS))), round(amount(counters.get(REVENUE_REFUNDS))),
+                count(counters.get(USERS_NEW)), hours);
+    }
+
+    private static CategoryUsage usage(String category, long items, double hours, long spanDays) {
+        double capacity = items * spanDays * HOURS_PER_DAY;
+        return new CategoryUsage(category, items, round(hours), capacity > 0 ? Math.round(hours / capacity * 10000) / 10000.0 : 0.0);
+    }
+
+    private static String category(String category) {
+        return category != null && !category.isBlank() ? category : UNCATEGORIZED;
+    }
+
+    private static LocalDate dayOf(LocalDateTime at) {
+        return at != null ? at.toLocalDate() : LocalDate.now();
+    }
+
+    private static double amount(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    private static long count(Double value) {
+        return value != null ? Math.round(value) : 0L;
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Booking;
+import com.example.backend.repository.BookingRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-equipment index of booked time ranges used to detect double bookings.
+ * Each equipment keeps an immutable array of ranges sorted by start with a
+ * running max of end times, so overlap checks are a single binary search.
+ */
+@Service
+public class BookingAvailabilityIndex {
+
+    /** Statuses that hold the equipment for their time range */
+    public static final Set<String> BLOCKING_STATUSES = Set.of("pending", "confirmed", "active", "in-progress", "overdue");
+
+    private final BookingRepository bookingRepository;
+
+    private final Map<Long, Slots> slotsByEquipment = new ConcurrentHashMap<>();
+
+    public BookingAvailabilityIndex(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        slotsByEquipment.clear();
+        bookingRepository.findByStatusIn(BLOCKING_STATUSES).forEach(this::update);
+    }
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        update(event.booking());
+    }
+
+    /**
+     * Apply a booking after it was saved. Bookings that no longer block
+     * (cancelled, completed, returned) are removed from their equipment.
+     */
+    public void update(Booking booking) {
+        if (booking == null || booking.id == null || booking.equipmentId == null) return;
+        LocalDateTime start = booking.start();
+        LocalDateTime end = booking.end();
+        boolean blocking = BLOCKING_STATUSES.contains(booking.status) && start != null && end != null && end.isAfter(start);
+
+        slotsByEquipment.compute(booking.equipmentId, (id, current) -> {
+            Slots base = current != null ? current.without(booking.id) : Slots.EMPTY;
+            Slots next = blocking ? base.with(booking.id, toEpoch(start), toEpoch(end)) : base;
+            return next.isEmpty() ? null : next;
+        });
+    }
+
+    public void remove(Booking booking) {
+        if (booking == null || booking.id == null || booking.equipmentId == null) return;
+        slotsByEquipment.computeIfPresent(booking.equipmentId, (id, current) -> {
+            Slots next = current.without(booking.id);
+            return next.isEmpty() ? null : next;
+        });
+    }
+
+    public boolean isFree(Long equipmentId, LocalDateTime start, LocalDateTime end) {
+        Slots slots = slotsByEquipment.get(equipmentId);
+        return slots == null || !slots.overlaps(toEpoch(start), toEpoch(end));
+    }
+
+    /**
+     * Ids of bookings overlapping [start, end), optionally ignoring one booking (e.g. the one being edited)
+     */
+    public List<Long> conflicts(Long equipmentId, LocalDateTime start, LocalDateTime end, Long ignoreBookingId) {
+        Slots slots = slotsByEquipment.get(equipmentId);
+        if (slots == null) return List.of();
+        return slots.overlapping(toEpoch(start), toEpoch(end), ignoreBookingId);
+    }
+
+    /**
+     * Earliest start at or after "from" where a slot of the given length fits
+     */
+    public LocalDateTime nextFreeSlot(Long equipmentId, LocalDateTime from, Duration length) {
+        Slots slots = slotsByEquipment.get(equipmentId);
+        if (slots == null) return from;
+        long start = slots.nextFree(toEpoch(from), length.getSeconds());
+        return LocalDateTime.ofEpochSecond(start, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Availability of many equipment items for the same range, in request order
+     */
+    public Map<Long, Boolean> areFree(List<Long> equipmentIds, LocalDateTime start, LocalDateTime end) {
+        long s = toEpoch(start);
+        long e = toEpoch(end);
+        Map<Long, Boolean> result = new LinkedHashMap<>();
+        for (Long id : equipmentIds) {
+            Slots slots = slotsByEquipment.get(id);
+            result.put(id, slots == null || !slots.overlaps(s, e));
+        }
+        return result;
+    }
+
+    /**
+     * Range bound from request date/time strings; missing time means start of day,
+     * or for an end bound, the whole day
+     */
+    public static LocalDateTime parse(String date, String time, boolean endOfDay) {
+        if (date == null || date.isEmpty()) return null;
+        try {
+            LocalDate d = LocalDate.parse(date);
+            if (time == null || time.isEmpty()) {
+                return endOfDay ? d.plusDays(1).atStartOfDay() : d.atStartOfDay();
+            }
+            return d.atTime(LocalTime.parse(time));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static long toEpoch(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Immutable sorted ranges. maxEnds[i] is the largest end among ranges 0..i,
+     * which lets overlap tests stop after one binary search even when legacy
+     * bookings overlap each other.
+     */
+    private static final class Slots {
+        static final Slots EMPTY = new Slots(new long[0], new long[0], new long[0]);
+
+        final long[] bookingIds;
+        final long[] starts;
+        final long[] ends;
+        final long[] maxEnds;
+
+        Slots(long[] bookingIds, long[] starts, long[] ends) {
+            this.bookingIds = bookingIds;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+
+        boolean isEmpty() {
+            return bookingIds.length == 0;
+        }
+
+        /** Index of the last range starting before t, or -1 */
+        int lastStartingBefore(long t) {
+            int lo = 0, hi = starts.length - 1, found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] < t) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found;
+        }
+
+        boolean overlaps(long start, long end) {
+            int i = lastStartingBefore(end);
+            return i >= 0 && maxEnds[i] > start;
+        }
+
+        List<Long> overlapping(long start, long end, Long ignoreBookingId) {
+            List<Long> ids = new ArrayList<>();
+            for (int i = lastStartingBefore(end); i >= 0 && maxEnds[i] > start; i--) {
+                if (ends[i] > start && (ignoreBookingId == null || bookingIds[i] != ignoreBookingId)) {
+                    ids.add(bookingIds[i]);
+                }
+            }
+            return ids;
+        }
+
+        long nextFree(long from, long length) {
+            long candidate = from;
+            while (true) {
+                int i = lastStartingBefore(candidate + length);
+                if (i < 0 || maxEnds[i] <= candidate) return candidate;
+                // Every start before maxEnds[i] collides with the range that ends there
+                candidate = maxEnds[i];
+            }
+        }
+
+        Slots without(long bookingId) {
+            for (int i = 0; i < bookingIds.length; i++) {
+                if (bookingIds[i] == bookingId) {
+                    return new Slots(removeAt(bookingIds, i), removeAt(starts, i), removeAt(ends, i));
+                }
+            }
+            return this;
+        }
+
+        Slots with(long bookingId, long start, long end) {
+            int at = lastStartingBefore(start + 1) + 1;
+            return new Slots(insertAt(bookingIds, at, bookingId), insertAt(starts, at, start), insertAt(ends, at, end));
+        }
+
+        private static long[] removeAt(long[] a, int i) {
+            long[] out = Arrays.copyOf(a, a.length - 1);
+            System.arraycopy(a, i + 1, out, i, a.length - i - 1);
+            return out;
+        }
+
+        private static long[] insertAt(long[] a, int i, long v) {
+            long[] out = new long[a.length + 1];
+            System.arraycopy(a, 0, out, 0, i);
+            out[i] = v;
+            System.arraycopy(a, i, out, i + 1, a.length - i);
+            return out;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Booking;
+
+/**
+ * Published after a booking was saved. previousStatus is null for new bookings.
+ */
+public record BookingChangedEvent(Booking booking, String previousStatus) {
+
+    /**
+     * Event for a just-saved booking. Marks the booking's current status as
+     * persisted, so publishing twice for the same save is harmless.
+     */
+    public static BookingChangedEvent of(Booking saved) {
+        String previous = saved.persistedStatus;
+        saved.persistedStatus = saved.status;
+        return new BookingChangedEvent(saved, previous);
+    }
+
+    public boolean isNew() {
+        return previousStatus == null;
+    }
+}
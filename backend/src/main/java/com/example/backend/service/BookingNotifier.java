@@ -0,0 +1,55 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Booking;
+import com.example.backend.model.Notification;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Tells borrowers and operators about new, returned and cancelled bookings.
+ * Overdue bookings are handled by OverdueNotifier.
+ */
+@Service
+public class BookingNotifier {
+
+    private static final String TYPE = "booking";
+
+    private final NotificationDispatcher dispatcher;
+
+    public BookingNotifier(NotificationDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        Booking b = event.booking();
+        String status = b.status;
+        if (status == null || status.equals(event.previousStatus())) return;
+
+        String equipment = b.equipmentName != null ? b.equipmentName : "Equipment";
+        String borrower = b.userName != null ? b.userName : "A farmer";
+
+        if (event.isNew()) {
+            notify(b, b.userId, "confirmed".equals(status) ? "Booking confirmed" : "Booking received",
+                    "Your booking for " + equipment + " is " + status + ".");
+            notifyOperator(b, "New booking", borrower + " booked " + equipment + ".");
+        } else if ("completed".equals(status) || "overdue-returned".equals(status)) {
+            notify(b, b.userId, "Equipment returned", equipment + " was returned. Thank you!");
+            notifyOperator(b, "Equipment returned", equipment + " was returned by " + borrower + ".");
+        } else if ("cancelled".equals(status)) {
+            notify(b, b.userId, "Booking cancelled", "Your booking for " + equipment + " was cancelled.");
+            notifyOperator(b, "Booking cancelled", borrower + " cancelled their booking for " + equipment + ".");
+        }
+    }
+
+    private void notifyOperator(Booking b, String title, String message) {
+        if (b.operatorId != null && !b.operatorId.equals(b.userId)) {
+            notify(b, b.operatorId, title, message);
+        }
+    }
+
+    private void notify(Booking b, Long userId, String title, String message) {
+        if (userId == null) return;
+        dispatcher.enqueue(Notification.of(userId, TYPE, title, message, "/booking/" + b.id));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Booking;
+
+import java.util.List;
+
+/**
+ * Published once per overdue sweep with every booking that just became overdue.
+ */
+public record BookingsOverdueEvent(List<Booking> bookings) {}
@@ -0,0 +1,100 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Booking;
+import com.example.backend.repository.BookingRepository;
+import com.example.backend.repository.EquipmentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Borrow, return and advance booking as single transactions.
+ *
+ * The availability flip is a conditional UPDATE, so when several people scan
+ * the same item at once exactly one of them gets it; the others are turned
+ * away without a booking being written. Advance bookings take the equipment
+ * row lock before checking for overlaps, so two requests for the same slot
+ * can't both pass the check. Returns only close a booking that still has the
+ * status it was read with, so a replayed return neither charges twice nor
+ * frees equipment again. Callers publish BookingChangedEvent after these
+ * methods return, i.e. after commit.
+ */
+@Service
+public class EquipmentCheckoutService {
+
+    // Bookings whose equipment is out, or due to go out, and can be brought back
+    public static final Set<String> RETURNABLE_STATUSES = Set.of("confirmed", "active", "in-progress", "overdue");
+
+    private final EquipmentRepository equipmentRepository;
+    private final BookingRepository bookingRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public EquipmentCheckoutService(EquipmentRepository equipmentRepository, BookingRepository bookingRepository) {
+        this.equipmentRepository = equipmentRepository;
+        this.bookingRepository = bookingRepository;
+    }
+
+    /**
+     * Take the booking's equipment and save the booking
+     * @return Saved booking, or null if the equipment was taken first by someone else
+     */
+    @Transactional
+    public Booking borrow(Booking booking) {
+        detach(booking);
+        if (equipmentRepository.claim(booking.equipmentId) == 0) {
+            return null;
+        }
+        return bookingRepository.save(booking);
+    }
+
+    /**
+     * Save an advance booking if nothing already holds any part of its range
+     * @return Saved booking, or null if it overlaps a blocking booking
+     * @throws IllegalArgumentException if the equipment doesn't exist
+     */
+    @Transactional
+    public Booking reserve(Booking booking) {
+        if (equipmentRepository.lockById(booking.equipmentId).isEmpty()) {
+            throw new IllegalArgumentException("Equipment not found");
+        }
+        List<Long> overlapping = bookingRepository.findOverlapping(booking.equipmentId,
+                BookingAvailabilityIndex.BLOCKING_STATUSES, booking.start(), booking.end());
+        if (!overlapping.isEmpty()) {
+            return null;
+        }
+        return bookingRepository.save(booking);
+    }
+
+    /**
+     * Close a returned booking and make its equipment available again
+     * @param booking Booking as read, with its closing status, times and amount set
+     * @return False if the booking wasn't returnable when read, or was closed by someone else since
+     */
+    @Transactional
+    public boolean giveBack(Booking booking) {
+        detach(booking);
+        if (!RETURNABLE_STATUSES.contains(booking.persistedStatus)) {
+            return false;
+        }
+        if (bookingRepository.close(booking.id, booking.persistedStatus, booking.status, booking.checkInTime,
+                booking.checkOutTime, booking.totalAmount, booking.updatedAt) == 0) {
+            return false;
+        }
+        equipmentRepository.release(booking.equipmentId);
+        return true;
+    }
+
+    /**
+     * Stop tracking a booking the caller loaded and changed, so its changes are
+     * written only after the conditional update here and never flushed ahead of it
+     */
+    private void detach(Booking booking) {
+        if (entityManager.contains(booking)) entityManager.detach(booking);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Equipment;
+import com.example.backend.repository.EquipmentRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory uniform grid over equipment coordinates.
+ * Answers radius and bounding-box lookups without loading the whole fleet.
+ */
+@Service
+public class EquipmentGeoIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    // 0.05 degrees is roughly 5.5 km of latitude; a 10 km map query touches ~25 cells
+    private static final double CELL_SIZE_DEG = 0.05;
+
+    private final EquipmentRepository equipmentRepository;
+
+    private final Map<Long, Point> points = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    public EquipmentGeoIndex(EquipmentRepository equipmentRepository) {
+        this.equipmentRepository = equipmentRepository;
+    }
+
+    /**
+     * A matching equipment id with its distance from the query origin.
+     */
+    public record Hit(Long equipmentId, double distanceKm) {}
+
+    private record Point(double lat, double lng, long cell) {}
+
+    /**
+     * Load all geotagged equipment once the seeders have run
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        points.clear();
+        cells.clear();
+        equipmentRepository.findAll().forEach(this::put);
+    }
+
+    /**
+     * Insert or move an equipment item. Items without coordinates are dropped from the index.
+     */
+    public synchronized void put(Equipment equipment) {
+        if (equipment == null || equipment.id == null) return;
+        remove(equipment.id);
+        if (equipment.location == null || equipment.location.lat == null || equipment.location.lng == null) return;
+
+        double lat = equipment.location.lat;
+        double lng = equipment.location.lng;
+        long cell = cellKey(latCell(lat), lngCell(lng));
+        points.put(equipment.id, new Point(lat, lng, cell));
+        cells.computeIfAbsent(cell, k -> ConcurrentHashMap.newKeySet()).add(equipment.id);
+    }
+
+    public synchronized void remove(Long equipmentId) {
+        Point old = points.remove(equipmentId);
+        if (old == null) return;
+        cells.computeIfPresent(old.cell(), (k, ids) -> {
+            ids.remove(equipmentId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Equipment within radiusKm of (lat, lng), nearest first.
+     */
+    public List<Hit> withinRadius(double lat, double lng, double radiusKm, int limit) {
+        double dLat = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double cosLat = Math.cos(Math.toRadians(lat));
+        double dLng = cosLat < 1e-6 ? 180.0 : Math.min(180.0, dLat / cosLat);
+
+        List<Hit> hits = new ArrayList<>();
+        scan(lat - dLat, lng - dLng, lat + dLat, lng + dLng, (id, p) -> {
+            double d = haversineKm(lat, lng, p.lat(), p.lng());
+            if (d <= radiusKm) hits.add(new Hit(id, d));
+        });
+        return nearest(hits, limit);
+    }
+
+    /**
+     * Equipment inside the box, sorted by distance from (originLat, originLng).
+     */
+    public List<Hit> withinBounds(double minLat, double minLng, double maxLat, double maxLng,
+                                  double originLat, double originLng, int limit) {
+        List<Hit> hits = new ArrayList<>();
+        scan(minLat, minLng, maxLat, maxLng, (id, p) -> {
+            if (p.lat() >= minLat && p.lat() <= maxLat && p.lng() >= minLng && p.lng() <= maxLng) {
+                hits.add(new Hit(id, haversineKm(originLat, originLng, p.lat(), p.lng())));
+            }
+        });
+        return nearest(hits, limit);
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private interface Visitor {
+        void visit(Long id, Point point);
+    }
+
+    private void scan(double minLat, double minLng, double maxLat, double maxLng, Visitor visitor) {
+        int fromLat = latCell(Math.max(-90.0, minLat));
+        int toLat = latCell(Math.min(90.0, maxLat));
+        int fromLng = lngCell(Math.max(-180.0, minLng));
+        int toLng = lngCell(Math.min(180.0, maxLng));
+
+        // A box wider than the populated area (polar radius queries) walks the populated cells instead
+        long boxCells = (long) (toLat - fromLat + 1) * (toLng - fromLng + 1);
+        if (boxCells > cells.size()) {
+            for (Map.Entry<Long, Set<Long>> cell : cells.entrySet()) {
+                int y = (int) (cell.getKey() >> 32);
+                int x = (int) (long) cell.getKey();
+                if (y < fromLat || y > toLat || x < fromLng || x > toLng) continue;
+                for (Long id : cell.getValue()) {
+                    Point p = points.get(id);
+                    if (p != null) visitor.visit(id, p);
+                }
+            }
+            return;
+        }
+
+        for (int y = fromLat; y <= toLat; y++) {
+            for (int x = fromLng; x <= toLng; x++) {
+                Set<Long> ids = cells.get(cellKey(y, x));
+                if (ids == null) continue;
+                for (Long id : ids) {
+                    Point p = points.get(id);
+                    if (p != null) visitor.visit(id, p);
+                }
+            }
+        }
+    }
+
+    private static List<Hit> nearest(List<Hit> hits, int limit) {
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    private static int latCell(double lat) {
+        return (int) Math.floor((lat + 90.0) / CELL_SIZE_DEG);
+    }
+
+    private static int lngCell(double lng) {
+        return (int) Math.floor((lng + 180.0) / CELL_SIZE_DEG);
+    }
+
+    private static long cellKey(int latCell, int lngCell) {
+        return ((long) latCell << 32) | (lngCell & 0xffffffffL);
+    }
+}
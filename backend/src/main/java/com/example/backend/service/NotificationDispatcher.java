@@ -0,0 +1,207 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Notification;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes notifications off the request thread.
+ *
+ * Producers drop notifications into a bounded queue and return immediately. One
+ * worker drains the queue in batches, coalesces duplicates within a batch, inserts
+ * the rows with a single JDBC batch and then publishes NotificationsCreatedEvent
+ * for the live streams. When the queue is full, new notifications are dropped and
+ * counted rather than slowing down borrow or return.
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, type, title, message, link, is_read, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /** Counters since startup, plus the current queue depth */
+    public record Stats(int queued, int capacity, long enqueued, long dropped, long coalesced,
+                        long inserted, long failed, long batches) {}
+
+    // Notifications that would read identically to the user are written once per batch
+    private record Key(Long userId, String type, String title, String message, String link) {
+        static Key of(Notification n) {
+            return new Key(n.userId, n.type, n.title, n.message, n.link);
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher events;
+    private final BlockingQueue<Notification> queue;
+    private final int capacity;
+    private final int batchSize;
+    private final long lingerMillis;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    private Thread worker;
+    private volatile boolean running;
+
+    public NotificationDispatcher(DataSource dataSource, ApplicationEventPublisher events,
+                                  @Value("${notifications.dispatch.queue-capacity:10000}") int capacity,
+                                  @Value("${notifications.dispatch.batch-size:200}") int batchSize,
+                                  @Value("${notifications.dispatch.linger-ms:50}") long lingerMillis) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.events = events;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "notification-dispatch");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stop taking batches and write out whatever is still queued
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+        List<Notification> rest = new ArrayList<>();
+        while (queue.drainTo(rest, batchSize) > 0) {
+            writeQuietly(rest);
+            rest.clear();
+        }
+    }
+
+    /**
+     * Queue a notification for writing. Never blocks.
+     * @return false if the queue was full and the notification was dropped
+     */
+    public boolean enqueue(Notification notification) {
+        if (notification == null || notification.userId == null) return true;
+        if (queue.offer(notification)) {
+            enqueued.incrementAndGet();
+            return true;
+        }
+        long total = dropped.incrementAndGet();
+        // Once per thousand, so a stuck database doesn't also flood the log
+        if (total % 1000 == 1) {
+            log.warn("Notification queue full ({}), {} notification(s) dropped so far", capacity, total);
+        }
+        return false;
+    }
+
+    public void enqueueAll(Collection<Notification> notifications) {
+        notifications.forEach(this::enqueue);
+    }
+
+    public Stats stats() {
+        return new Stats(queue.size(), capacity, enqueued.get(), dropped.get(), coalesced.get(),
+                inserted.get(), failed.get(), batches.get());
+    }
+
+    private void run() {
+        List<Notification> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Notification first = queue.take();
+                batch.add(first);
+                // Give a burst (e.g. an overdue sweep) a moment to land in the same batch
+                if (lingerMillis > 0 && queue.size() < batchSize - 1) {
+                    Thread.sleep(lingerMillis);
+                }
+                queue.drainTo(batch, batchSize - 1);
+                // One bad batch must not stop the pipeline
+                writeQuietly(batch);
+            } catch (InterruptedException e) {
+                // Shutting down: don't lose a batch caught mid-linger; stop() writes the rest of the queue
+                if (!batch.isEmpty()) writeQuietly(batch);
+                if (!running) break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeQuietly(List<Notification> batch) {
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            failed.addAndGet(batch.size());
+            log.warn("Could not write {} notification(s): {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private void write(List<Notification> batch) {
+        Map<Key, Notification> unique = new LinkedHashMap<>();
+        for (Notification n : batch) unique.putIfAbsent(Key.of(n), n);
+        coalesced.addAndGet(batch.size() - unique.size());
+        List<Notification> rows = new ArrayList<>(unique.values());
+
+        jdbc.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+                for (Notification n : rows) {
+                    ps.setLong(1, n.userId);
+                    setString(ps, 2, n.type);
+                    setString(ps, 3, n.title);
+                    setString(ps, 4, n.message);
+                    setString(ps, 5, n.link);
+                    ps.setBoolean(6, n.read);
+                    ps.setTimestamp(7, Timestamp.valueOf(n.createdAt != null ? n.createdAt : LocalDateTime.now()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (int i = 0; i < rows.size() && keys.next(); i++) {
+                        rows.get(i).id = keys.getLong(1);
+                    }
+                }
+            }
+            return null;
+        });
+        inserted.addAndGet(rows.size());
+        batches.incrementAndGet();
+
+        events.publishEvent(new NotificationsCreatedEvent(rows));
+    }
+
+    private static void setString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null) ps.setNull(index, Types.VARCHAR);
+        else ps.setString(index, value);
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Notification;
+import com.example.backend.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Live notification streams (Server-Sent Events), replacing unread-count polling.
+ *
+ * Each stream gets "notification" events, whose SSE id is the notification id,
+ * and "unread-count" events, which carry no id. A reconnecting browser sends the
+ * last id it saw in Last-Event-ID and gets what it missed replayed from the table.
+ * Idle streams hold no thread, only an async request; a periodic comment line
+ * keeps proxies from closing them and finds clients that went away.
+ *
+ * Pushes and heartbeats are written on a few fan-out threads of this service's
+ * own, each user always on the same one so their events stay in order. A client
+ * with a full socket buffer therefore holds up only the users sharing its thread,
+ * never the notification-dispatch worker or the shared task scheduler, and a
+ * stream whose write has been stuck for longer than send-timeout-ms is dropped;
+ * the browser reconnects and catches up through Last-Event-ID.
+ */
+@Service
+public class NotificationStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationStreamService.class);
+
+    public static final String NOTIFICATION_EVENT = "notification";
+    public static final String UNREAD_COUNT_EVENT = "unread-count";
+
+    private final NotificationRepository notificationRepository;
+    private final long timeoutMillis;
+    private final int maxPerUser;
+    private final int replayLimit;
+    private final long sendTimeoutNanos;
+
+    // A user rarely has more than a tab or two open, so per-user lists stay tiny
+    private final Map<Long, List<Connection>> streams = new ConcurrentHashMap<>();
+
+    // Single-threaded each, so a user's events keep their order
+    private final ThreadPoolExecutor[] fanOut;
+    private final ScheduledExecutorService heartbeats;
+
+    private final Counter skippedPushes;
+    private final Counter droppedStreams;
+
+    /** An open stream, and when the write in progress on it started (0 if none) */
+    private static final class Connection {
+        final SseEmitter emitter;
+        volatile long sendingSince;
+        volatile boolean dropped;
+
+        Connection(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    public NotificationStreamService(NotificationRepository notificationRepository,
+                                     @Value("${notifications.stream.timeout-ms:1800000}") long timeoutMillis,
+                                     @Value("${notifications.stream.max-per-user:5}") int maxPerUser,
+                                     @Value("${notifications.stream.replay-limit:100}") int replayLimit,
+                                     @Value("${notifications.stream.fan-out-threads:4}") int fanOutThreads,
+                                     @Value("${notifications.stream.fan-out-queue:1000}") int fanOutQueue,
+                                     @Value("${notifications.stream.heartbeat-ms:25000}") long heartbeatMillis,
+                                     @Value("${notifications.stream.send-timeout-ms:10000}") long sendTimeoutMillis,
+                                     MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.timeoutMillis = timeoutMillis;
+        this.maxPerUser = maxPerUser;
+        this.replayLimit = replayLimit;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.skippedPushes = Counter.builder("notifications.stream.pushes.skipped")
+                .description("Live pushes and heartbeats dropped because the fan-out queue was full")
+                .register(meterRegistry);
+        this.droppedStreams = Counter.builder("notifications.stream.dropped")
+                .description("Streams closed because a write to them was stuck")
+                .register(meterRegistry);
+
+        this.fanOut = new ThreadPoolExecutor[Math.max(1, fanOutThreads)];
+        for (int i = 0; i < fanOut.length; i++) {
+            String name = "notification-stream-" + (i + 1);
+            fanOut[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(fanOutQueue),
+                    r -> {
+                        Thread t = new Thread(r, name);
+                        t.setDaemon(true);
+                        return t;
+                    },
+                    // Saved notifications aren't lost: clients get them on the next replay or count
+                    (r, pool) -> {
+                        skippedPushes.increment();
+                        log.warn("Notification stream fan-out thread {} is behind, skipping a live push", name);
+                    });
+        }
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "notification-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        for (ThreadPoolExecutor shard : fanOut) shard.shutdownNow();
+    }
+
+    /**
+     * Open a stream for a user
+     * @param lastEventId Id of the last notification the client saw, or null on a fresh connect
+     */
+    public SseEmitter connect(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection = new Connection(emitter);
+        emitter.onCompletion(() -> remove(userId, connection));
+        emitter.onTimeout(() -> remove(userId, connection));
+        emitter.onError(e -> remove(userId, connection));
+
+        List<Connection> evicted = new ArrayList<>();
+        streams.compute(userId, (id, userStreams) -> {
+            if (userStreams == null) userStreams = new CopyOnWriteArrayList<>();
+            userStreams.add(connection);
+            // Tabs that were closed without a clean disconnect shouldn't pile up
+            while (userStreams.size() > maxPerUser) evicted.add(userStreams.remove(0));
+            return userStreams;
+        });
+        evicted.forEach(c -> c.emitter.complete());
+
+        // Registered before replaying, so a notification saved meanwhile may arrive
+        // twice but is never lost; clients de-duplicate by id
+        if (lastEventId != null) {
+            for (Notification n : notificationRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(
+                    userId, lastEventId, PageRequest.ofSize(replayLimit))) {
+                if (!send(userId, connection, notificationEvent(n))) return emitter;
+            }
+        }
+        send(userId, connection, unreadCountEvent(unreadCount(userId)));
+        return emitter;
+    }
+
+    /**
+     * Close every stream the user has open
+     */
+    public void disconnect(Long userId) {
+        List<Connection> userStreams = streams.remove(userId);
+        if (userStreams != null) userStreams.forEach(c -> c.emitter.complete());
+    }
+
+    public boolean isConnected(Long userId) {
+        List<Connection> userStreams = streams.get(userId);
+        return userStreams != null && !userStreams.isEmpty();
+    }
+
+    public int connectionCount() {
+        return streams.values().stream().mapToInt(List::size).sum();
+    }
+
+    @EventListener
+    public void onCreated(NotificationsCreatedEvent event) {
+        Map<Long, List<Notification>> byUser = new LinkedHashMap<>();
+        for (Notification n : event.notifications()) {
+            if (n.userId != null && isConnected(n.userId)) {
+                byUser.computeIfAbsent(n.userId, id -> new ArrayList<>()).add(n);
+            }
+        }
+        byUser.forEach((userId, notifications) -> shard(userId).execute(() -> {
+            for (Notification n : notifications) broadcast(userId, () -> notificationEvent(n));
+            broadcastUnreadCount(userId);
+        }));
+    }
+
+    /**
+     * Send the current unread count to a connected user, e.g. after they read or delete notifications
+     */
+    public void pushUnreadCount(Long userId) {
+        if (!isConnected(userId)) return;
+        shard(userId).execute(() -> broadcastUnreadCount(userId));
+    }
+
+    private void broadcastUnreadCount(Long userId) {
+        if (!isConnected(userId)) return;
+        long count = unreadCount(userId);
+        broadcast(userId, () -> unreadCountEvent(count));
+    }
+
+    /**
+     * Drop streams stuck in a write, then ping the rest from their own fan-out threads
+     */
+    private void heartbeat() {
+        try {
+            long now = System.nanoTime();
+            streams.forEach((userId, userStreams) -> {
+                for (Connection connection : userStreams) {
+                    long since = connection.sendingSince;
+                    if (since != 0 && now - since > sendTimeoutNanos) drop(userId, connection);
+                }
+            });
+            for (int i = 0; i < fanOut.length; i++) {
+                int shard = i;
+                fanOut[i].execute(() -> streams.forEach((userId, userStreams) -> {
+                    if (shardIndex(userId) != shard) return;
+                    for (Connection connection : userStreams) {
+                        send(userId, connection, SseEmitter.event().comment("ping"));
+                    }
+                }));
+            }
+        } catch (RuntimeException e) {
+            // A scheduled task that throws is never run again
+            log.warn("Notification stream heartbeat failed", e);
+        }
+    }
+
+    private ThreadPoolExecutor shard(Long userId) {
+        return fanOut[shardIndex(userId)];
+    }
+
+    private int shardIndex(Long userId) {
+        return Math.floorMod(userId.hashCode(), fanOut.length);
+    }
+
+    // An event builder can only be sent once, so each stream gets a fresh one
+    private void broadcast(Long userId, Supplier<SseEmitter.SseEventBuilder> event) {
+        List<Connection> userStreams = streams.get(userId);
+        if (userStreams == null) return;
+        for (Connection connection : userStreams) {
+            send(userId, connection, event.get());
+        }
+    }
+
+    private boolean send(Long userId, Connection connection, SseEmitter.SseEventBuilder event) {
+        if (connection.dropped) return false;
+        connection.sendingSince = System.nanoTime();
+        try {
+            connection.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the stream already completed
+            remove(userId, connection);
+            return false;
+        } finally {
+            connection.sendingSince = 0;
+            // Completed here rather than by the heartbeat, which would wait on the stuck write
+            if (connection.dropped) connection.emitter.complete();
+        }
+    }
+
+    /**
+     * Stop writing to a stream whose write is stuck; it is completed once that write returns
+     */
+    private void drop(Long userId, Connection connection) {
+        if (connection.dropped) return;
+        connection.dropped = true;
+        remove(userId, connection);
+        droppedStreams.increment();
+        log.info("Dropping notification stream of user {}: a write has been stuck for over {} ms",
+                userId, TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+    }
+
+    private void remove(Long userId, Connection connection) {
+        streams.computeIfPresent(userId, (id, userStreams) -> {
+            userStreams.remove(connection);
+            return userStreams.isEmpty() ? null : userStreams;
+        });
+    }
+
+    private static SseEmitter.SseEventBuilder notificationEvent(Notification n) {
+        return SseEmitter.event().id(String.valueOf(n.id)).name(NOTIFICATION_EVENT).data(n, MediaType.APPLICATION_JSON);
+    }
+
+    private static SseEmitter.SseEventBuilder unreadCountEvent(long count) {
+        return SseEmitter.event().name(UNREAD_COUNT_EVENT).data(count);
+    }
+
+    private long unreadCount(Long userId) {
+        return notificationRepository.countByUserIdAndRead(userId, false);
+    }
+}
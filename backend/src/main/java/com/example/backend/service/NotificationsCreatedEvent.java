@@ -0,0 +1,10 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Notification;
+
+import java.util.List;
+
+/**
+ * Published after new notifications have been saved
+ */
+public record NotificationsCreatedEvent(List<Notification> notifications) {}
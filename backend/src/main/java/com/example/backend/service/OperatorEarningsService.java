@@ -0,0 +1,176 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Booking;
+import com.example.backend.model.OperatorDailyEarnings;
+import com.example.backend.model.Payment;
+import com.example.backend.repository.BookingRepository;
+import com.example.backend.repository.OperatorDailyEarningsRepository;
+import com.example.backend.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Daily earnings per operator.
+ *
+ * Each completed payment adds to the operator's bucket for the payment day and
+ * each refund to the bucket for the refund day, so a date range is answered by
+ * summing at most one row per day instead of joining payments to bookings.
+ */
+@Service
+public class OperatorEarningsService {
+
+    private static final Logger log = LoggerFactory.getLogger(OperatorEarningsService.class);
+
+    public static final String COMPLETED = "completed";
+    public static final String REFUNDED = "refunded";
+
+    // Open-ended ranges start here
+    private static final LocalDate EARLIEST = LocalDate.of(2000, 1, 1);
+
+    public record Day(LocalDate day, double grossAmount, double refundAmount, double netAmount,
+                      int paymentsCount, int refundsCount) {}
+
+    public record Summary(LocalDate startDate, LocalDate endDate, double grossAmount, double refundAmount,
+                          double totalEarnings, int paymentsCount, int refundsCount, List<Day> days) {}
+
+    private final OperatorDailyEarningsRepository earningsRepository;
+    private final PaymentRepository paymentRepository;
+    private final BookingRepository bookingRepository;
+
+    public OperatorEarningsService(OperatorDailyEarningsRepository earningsRepository,
+                                   PaymentRepository paymentRepository, BookingRepository bookingRepository) {
+        this.earningsRepository = earningsRepository;
+        this.paymentRepository = paymentRepository;
+        this.bookingRepository = bookingRepository;
+    }
+
+    /**
+     * Earnings between two days, inclusive. Either end may be null for an open range.
+     */
+    public Summary summary(Long operatorId, LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : EARLIEST;
+        LocalDate end = to != null ? to : LocalDate.now();
+
+        List<Day> days = new ArrayList<>();
+        double gross = 0, refunds = 0;
+        int payments = 0, refundCount = 0;
+        for (OperatorDailyEarnings row : earningsRepository.findByOperatorIdAndDayBetweenOrderByDayAsc(operatorId, start, end)) {
+            days.add(new Day(row.day, round(row.grossAmount), round(row.refundAmount),
+                    round(row.grossAmount - row.refundAmount), row.paymentsCount, row.refundsCount));
+            gross += row.grossAmount;
+            refunds += row.refundAmount;
+            payments += row.paymentsCount;
+            refundCount += row.refundsCount;
+        }
+        return new Summary(start, end, round(gross), round(refunds), round(gross - refunds), payments, refundCount, days);
+    }
+
+    @EventListener
+    public void onPaymentChanged(PaymentChangedEvent event) {
+        Payment p = event.payment();
+        boolean completed = COMPLETED.equals(p.status) && event.previousStatus() == null;
+        boolean refunded = REFUNDED.equals(p.status) && !REFUNDED.equals(event.previousStatus());
+        if (!completed && !refunded) return;
+
+        Long operatorId = operatorOf(p.bookingId);
+        if (operatorId == null) return;
+
+        if (completed) {
+            add(operatorId, dayOf(p.paymentDate), amount(p.amount), 0, 1, 0);
+        } else {
+            add(operatorId, dayOf(p.refundDate), 0, amount(p.refundAmount), 0, 1);
+        }
+    }
+
+    /**
+     * First start with rollups: build them from the payments already on file
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (earningsRepository.count() > 0) return;
+        List<Payment> all = paymentRepository.findAll();
+        if (all.isEmpty()) return;
+
+        Set<Long> bookingIds = new HashSet<>();
+        for (Payment p : all) if (p.bookingId != null) bookingIds.add(p.bookingId);
+        Map<Long, Long> operatorByBooking = new HashMap<>();
+        for (Booking b : bookingRepository.findAllById(bookingIds)) {
+            if (b.operatorId != null) operatorByBooking.put(b.id, b.operatorId);
+        }
+
+        record Bucket(Long operatorId, LocalDate day) {}
+        Map<Bucket, OperatorDailyEarnings> rows = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Payment p : all) {
+            Long operatorId = operatorByBooking.get(p.bookingId);
+            if (operatorId == null) continue;
+            if (COMPLETED.equals(p.status) || REFUNDED.equals(p.status)) {
+                OperatorDailyEarnings row = rows.computeIfAbsent(new Bucket(operatorId, dayOf(p.paymentDate)), b -> newRow(b.operatorId(), b.day(), now));
+                row.grossAmount += amount(p.amount);
+                row.paymentsCount++;
+            }
+            if (REFUNDED.equals(p.status)) {
+                OperatorDailyEarnings row = rows.computeIfAbsent(new Bucket(operatorId, dayOf(p.refundDate)), b -> newRow(b.operatorId(), b.day(), now));
+                row.refundAmount += amount(p.refundAmount);
+                row.refundsCount++;
+            }
+        }
+        earningsRepository.saveAll(rows.values());
+        log.info("Built {} operator earnings bucket(s) from {} payment(s)", rows.size(), all.size());
+    }
+
+    private void add(Long operatorId, LocalDate day, double gross, double refund, int payments, int refunds) {
+        LocalDateTime now = LocalDateTime.now();
+        if (earningsRepository.addTo(operatorId, day, gross, refund, payments, refunds, now) > 0) return;
+
+        OperatorDailyEarnings row = newRow(operatorId, day, now);
+        row.grossAmount = gross;
+        row.refundAmount = refund;
+        row.paymentsCount = payments;
+        row.refundsCount = refunds;
+        try {
+            earningsRepository.save(row);
+        } catch (DataIntegrityViolationException e) {
+            // Another payment created the bucket first
+            earningsRepository.addTo(operatorId, day, gross, refund, payments, refunds, now);
+        }
+    }
+
+    private Long operatorOf(Long bookingId) {
+        if (bookingId == null) return null;
+        return bookingRepository.findById(bookingId).map(b -> b.operatorId).orElse(null);
+    }
+
+    private static OperatorDailyEarnings newRow(Long operatorId, LocalDate day, LocalDateTime now) {
+        OperatorDailyEarnings row = new OperatorDailyEarnings();
+        row.operatorId = operatorId;
+        row.day = day;
+        row.updatedAt = now;
+        return row;
+    }
+
+    private static LocalDate dayOf(LocalDateTime at) {
+        return at != null ? at.toLocalDate() : LocalDate.now();
+    }
+
+    private static double amount(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Booking;
+import com.example.backend.model.Notification;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Tells borrowers and operators when a booking goes overdue
+ */
+@Service
+public class OverdueNotifier {
+
+    private final NotificationDispatcher dispatcher;
+
+    public OverdueNotifier(NotificationDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @EventListener
+    public void onOverdue(BookingsOverdueEvent event) {
+        for (Booking b : event.bookings()) {
+            String equipment = b.equipmentName != null ? b.equipmentName : "Equipment";
+            if (b.userId != null) {
+                dispatcher.enqueue(notification(b, b.userId, "Return overdue",
+                        equipment + " was due back on " + b.endDate + ". Please return it to avoid further late fees."));
+            }
+            if (b.operatorId != null && !b.operatorId.equals(b.userId)) {
+                dispatcher.enqueue(notification(b, b.operatorId, "Equipment overdue",
+                        equipment + " booked by " + (b.userName != null ? b.userName : "a farmer") + " has not been returned."));
+            }
+        }
+    }
+
+    private static Notification notification(Booking b, Long userId, String title, String message) {
+        return Notification.of(userId, "booking", title, message, "/booking/" + b.id);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Booking;
+import com.example.backend.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves bookings past their end time to "overdue", or to "expired" when they
+ * were confirmed in advance but the equipment was never picked up: a no-show
+ * has nothing to bring back and shouldn't block the farmer's next borrow.
+ *
+ * Each sweep reads only the due rows through the (status, end_at) index, flips
+ * them with batched JDBC updates that re-check the status, then announces them
+ * as regular booking changes plus one BookingsOverdueEvent for notifications.
+ */
+@Service
+public class OverdueSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(OverdueSweeper.class);
+
+    /** Statuses where the equipment is out (or promised) and has to come back */
+    public static final Set<String> CANDIDATE_STATUSES = Set.of("confirmed", "active", "in-progress");
+
+    public static final String OVERDUE_STATUS = "overdue";
+    public static final String EXPIRED_STATUS = "expired";
+
+    private static final int BATCH_SIZE = 200;
+
+    private static final String FLIP_SQL =
+            "UPDATE bookings SET status = ?, updated_at = ? WHERE id = ? AND status = ?";
+
+    private final BookingRepository bookingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher events;
+    private final long graceMinutes;
+
+    public OverdueSweeper(BookingRepository bookingRepository,
+                          JdbcTemplate jdbcTemplate,
+                          ApplicationEventPublisher events,
+                          @Value("${bookings.overdue.grace-minutes:15}") long graceMinutes) {
+        this.bookingRepository = bookingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.events = events;
+        this.graceMinutes = graceMinutes;
+    }
+
+    /**
+     * Flip every booking whose end (plus grace period) has passed
+     * @return Number of bookings marked overdue, not counting expired ones
+     */
+    @Scheduled(fixedDelayString = "${bookings.overdue.sweep-ms:60000}", initialDelayString = "${bookings.overdue.sweep-ms:60000}")
+    public synchronized int sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(graceMinutes);
+        List<Booking> due = bookingRepository.findByStatusInAndEndAtBefore(CANDIDATE_STATUSES, cutoff);
+        if (due.isEmpty()) return 0;
+
+        List<Booking> flipped = new ArrayList<>();
+        for (int from = 0; from < due.size(); from += BATCH_SIZE) {
+            flipped.addAll(flip(due.subList(from, Math.min(from + BATCH_SIZE, due.size()))));
+        }
+        List<Booking> overdue = flipped.stream().filter(b -> OVERDUE_STATUS.equals(b.status)).toList();
+        if (overdue.size() < flipped.size()) {
+            log.info("Expired {} booking(s) that were never picked up", flipped.size() - overdue.size());
+        }
+        if (!overdue.isEmpty()) {
+            log.info("Marked {} booking(s) overdue", overdue.size());
+            events.publishEvent(new BookingsOverdueEvent(overdue));
+        }
+        return overdue.size();
+    }
+
+    /**
+     * Confirmed bookings count as handed over once a scan recorded a pickup;
+     * active and in-progress ones always are
+     */
+    private static boolean handedOver(Booking b) {
+        return !"confirmed".equals(b.status) || b.checkOutTime != null || b.checkInTime != null;
+    }
+
+    private List<Booking> flip(List<Booking> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (Booking b : batch) {
+            String to = handedOver(b) ? OVERDUE_STATUS : EXPIRED_STATUS;
+            args.add(new Object[]{to, Timestamp.valueOf(now), b.id, b.status});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(FLIP_SQL, args);
+
+        List<Booking> flipped = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            // Updated rows report 1, drivers that can't tell report SUCCESS_NO_INFO (-2);
+            // 0 means the booking was returned or changed since it was read
+            if (counts[i] == 0) continue;
+            Booking b = batch.get(i);
+            String previous = b.status;
+            b.status = (String) args.get(i)[0];
+            b.updatedAt = now;
+            b.persistedStatus = b.status;
+            events.publishEvent(new BookingChangedEvent(b, previous));
+            flipped.add(b);
+        }
+        return flipped;
+    }
+}
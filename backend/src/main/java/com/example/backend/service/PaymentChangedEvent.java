@@ -0,0 +1,9 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Payment;
+
+/**
+ * Published after a payment was saved. previousStatus is null for new payments.
+ */
+public record PaymentChangedEvent(Payment payment, String previousStatus) {
+}
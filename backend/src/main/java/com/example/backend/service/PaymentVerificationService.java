@@ -0,0 +1,111 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Payment;
+import com.example.backend.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Records each verified payment once, however often the client retries.
+ *
+ * Submissions with the same idempotency key share one write: concurrent duplicates
+ * on this instance wait for the first one, recent repeats are answered from memory,
+ * and the unique index on payments.idempotency_key settles races between instances
+ * and anything older than the cache.
+ */
+@Service
+public class PaymentVerificationService {
+
+    public record Result(Payment payment, boolean replayed) {}
+
+    private record Entry(CompletableFuture<Long> paymentId, long expiresAt) {}
+
+    private final PaymentRepository paymentRepository;
+    private final long ttlMillis;
+    private final long waitMillis;
+
+    private final Map<String, Entry> recent = new ConcurrentHashMap<>();
+
+    public PaymentVerificationService(PaymentRepository paymentRepository,
+                                      @Value("${payments.idempotency.cache-ttl-ms:600000}") long ttlMillis,
+                                      @Value("${payments.idempotency.wait-ms:10000}") long waitMillis) {
+        this.paymentRepository = paymentRepository;
+        this.ttlMillis = ttlMillis;
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * Save the payment built by create, unless one with this key already exists
+     * @param key Idempotency key, already scoped to the caller
+     * @param create Builds the new payment; only called when no payment with the key exists
+     */
+    public Result verify(String key, Supplier<Payment> create) throws TimeoutException {
+        CompletableFuture<Long> mine = new CompletableFuture<>();
+        Entry entry = new Entry(mine, System.currentTimeMillis() + ttlMillis);
+        Entry existing;
+        while ((existing = recent.putIfAbsent(key, entry)) != null) {
+            if (!existing.paymentId().isDone() || existing.expiresAt() >= System.currentTimeMillis()) {
+                return new Result(load(await(existing.paymentId())), true);
+            }
+            recent.remove(key, existing);
+        }
+
+        try {
+            Payment earlier = paymentRepository.findByIdempotencyKey(key).orElse(null);
+            if (earlier != null) {
+                mine.complete(earlier.id);
+                return new Result(earlier, true);
+            }
+
+            Payment payment = create.get();
+            payment.idempotencyKey = key;
+            Result result;
+            try {
+                result = new Result(paymentRepository.save(payment), false);
+            } catch (DataIntegrityViolationException e) {
+                // Another instance saved the same key first
+                Payment winner = paymentRepository.findByIdempotencyKey(key).orElseThrow(() -> e);
+                result = new Result(winner, true);
+            }
+            mine.complete(result.payment().id);
+            return result;
+        } catch (RuntimeException e) {
+            // Let the next retry try again rather than replaying a failure
+            recent.remove(key);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payments.idempotency.cache-ttl-ms:600000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        recent.values().removeIf(entry -> entry.expiresAt() < now && entry.paymentId().isDone());
+    }
+
+    private Long await(CompletableFuture<Long> paymentId) throws TimeoutException {
+        try {
+            return paymentId.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private Payment load(Long paymentId) {
+        return paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new IllegalStateException("Payment " + paymentId + " disappeared"));
+    }
+}
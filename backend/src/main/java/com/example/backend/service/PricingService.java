@@ -0,0 +1,165 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Booking;
+import com.example.backend.model.Equipment;
+import com.example.backend.repository.EquipmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Booking prices from per-equipment rate tables.
+ *
+ * Rates are cached per equipment item and loaded in one query for a whole batch
+ * of quotes. EquipmentController evicts an item when it is edited or deleted
+ * here; edits made on other replicas show up once the entry expires after
+ * pricing.rates.cache-ms.
+ *
+ * Rules:
+ * - hourly bookings bill every started hour, and each full day of hours costs at
+ *   most the day rate
+ * - daily bookings bill every started day
+ * - late returns pay pricing.late-fee.per-hour for each full hour past the
+ *   booking end, after pricing.late-fee.grace-minutes
+ */
+@Service
+public class PricingService {
+
+    public static final String HOURS = "hours";
+    public static final String DAYS = "days";
+
+    private static final long MINUTES_PER_HOUR = 60;
+    private static final long HOURS_PER_DAY = 24;
+
+    /** Rate table for one equipment item; a null rate means it can't be booked in that unit */
+    public record Rates(Long equipmentId, Double perHour, Double perDay) {
+        static Rates of(Equipment equipment) {
+            return new Rates(equipment.id, equipment.pricePerHour, equipment.pricePerDay);
+        }
+    }
+
+    private record CachedRates(Rates rates, long loadedAt) {}
+
+    public record QuoteRequest(Long equipmentId, String durationType, Duration length) {}
+
+    /**
+     * @param duration Billable units in durationType, after rounding up
+     * @param unitPrice Rate per unit; null if the equipment has no rate for that unit
+     */
+    public record Quote(Long equipmentId, String durationType, long duration, Double unitPrice, double totalAmount) {}
+
+    private final EquipmentRepository equipmentRepository;
+    private final double lateFeePerHour;
+    private final long lateGraceMinutes;
+    private final long cacheMillis;
+
+    private final Map<Long, CachedRates> rates = new ConcurrentHashMap<>();
+
+    public PricingService(EquipmentRepository equipmentRepository,
+                          @Value("${pricing.late-fee.per-hour:100}") double lateFeePerHour,
+                          @Value("${pricing.late-fee.grace-minutes:0}") long lateGraceMinutes,
+                          @Value("${pricing.rates.cache-ms:60000}") long cacheMillis) {
+        this.equipmentRepository = equipmentRepository;
+        this.lateFeePerHour = lateFeePerHour;
+        this.lateGraceMinutes = lateGraceMinutes;
+        this.cacheMillis = cacheMillis;
+    }
+
+    /**
+     * Price of an equipment item already in hand, e.g. during a borrow
+     */
+    public Quote quote(Equipment equipment, String durationType, Duration length) {
+        Rates table = Rates.of(equipment);
+        rates.put(equipment.id, new CachedRates(table, System.currentTimeMillis()));
+        return price(table, durationType, length);
+    }
+
+    /**
+     * Price a batch of requests with at most one equipment query
+     * @return Quotes in request order; null where the equipment doesn't exist
+     */
+    public List<Quote> quote(List<QuoteRequest> requests) {
+        Set<Long> ids = new HashSet<>();
+        for (QuoteRequest request : requests) ids.add(request.equipmentId());
+        Map<Long, Rates> tables = rates(ids);
+
+        List<Quote> quotes = new ArrayList<>(requests.size());
+        for (QuoteRequest request : requests) {
+            Rates table = tables.get(request.equipmentId());
+            quotes.add(table == null ? null : price(table, request.durationType(), request.length()));
+        }
+        return quotes;
+    }
+
+    /**
+     * Late fee owed for returning a booking at returnedAt
+     */
+    public double lateFee(Booking booking, LocalDateTime returnedAt) {
+        LocalDateTime due = booking.end();
+        if (due == null) return 0.0;
+        long minutesLate = Duration.between(due, returnedAt).toMinutes();
+        if (minutesLate <= lateGraceMinutes) return 0.0;
+        return round(minutesLate / MINUTES_PER_HOUR * lateFeePerHour);
+    }
+
+    public void evict(Long equipmentId) {
+        rates.remove(equipmentId);
+    }
+
+    private Map<Long, Rates> rates(Collection<Long> ids) {
+        Map<Long, Rates> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Long id : ids) {
+            if (id == null) continue;
+            CachedRates cached = rates.get(id);
+            if (cached != null && now - cached.loadedAt() < cacheMillis) found.put(id, cached.rates());
+            else missing.add(id);
+        }
+        if (!missing.isEmpty()) {
+            for (Equipment equipment : equipmentRepository.findAllById(missing)) {
+                Rates table = Rates.of(equipment);
+                rates.put(equipment.id, new CachedRates(table, now));
+                found.put(equipment.id, table);
+            }
+        }
+        return found;
+    }
+
+    private static Quote price(Rates table, String durationType, Duration length) {
+        long minutes = Math.max(1, length.toMinutes());
+        long hours = (minutes + MINUTES_PER_HOUR - 1) / MINUTES_PER_HOUR;
+
+        if (DAYS.equals(durationType)) {
+            long days = (hours + HOURS_PER_DAY - 1) / HOURS_PER_DAY;
+            double total = table.perDay() != null ? table.perDay() * days : 0.0;
+            return new Quote(table.equipmentId(), DAYS, days, table.perDay(), round(total));
+        }
+
+        double total = 0.0;
+        if (table.perHour() != null) {
+            double fullDay = table.perHour() * HOURS_PER_DAY;
+            double partDay = table.perHour() * (hours % HOURS_PER_DAY);
+            if (table.perDay() != null) {
+                fullDay = Math.min(fullDay, table.perDay());
+                partDay = Math.min(partDay, table.perDay());
+            }
+            total = fullDay * (hours / HOURS_PER_DAY) + partDay;
+        }
+        return new Quote(table.equipmentId(), HOURS, hours, table.perHour(), round(total));
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.backend.service;
 
+import com.example.backend.util.QrPayload;
+import com.example.backend.util.QrPayloadCodec;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
 import com.google.zxing.WriterException;
@@ -7,6 +9,9 @@ import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
@@ -16,8 +21,10 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class QRCodeService {
@@ -25,6 +32,37 @@ public class QRCodeService {
     private static final int QR_CODE_WIDTH = 300;
     private static final int QR_CODE_HEIGHT = 300;
 
+    // Rendered PNG cache bounds: label printing re-renders the same few hundred codes
+    private static final int RENDER_CACHE_MAX_ENTRIES = 2_000;
+    private static final long RENDER_CACHE_MAX_BYTES = 32L * 1024 * 1024;
+
+    private record RenderKey(String data, int size, ErrorCorrectionLevel errorCorrection) {}
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<RenderKey, byte[]> renderCache = new LinkedHashMap<>(256, 0.75f, true);
+    private long renderCacheBytes;
+
+    private final QrTokenService qrTokenService;
+
+    private final Timer renderTimer;
+    private final Counter renderCacheHits;
+
+    public QRCodeService(QrTokenService qrTokenService, MeterRegistry meterRegistry) {
+        this.qrTokenService = qrTokenService;
+        this.renderTimer = Timer.builder("qr.render")
+                .description("Encoding a payload and writing it as PNG, on render cache misses and bulk exports")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.renderCacheHits = Counter.builder("qr.render.cache.hits")
+                .description("PNG renders served from the render cache")
+                .register(meterRegistry);
+        meterRegistry.gauge("qr.render.cache.bytes", this, service -> {
+            synchronized (service.renderCache) {
+                return service.renderCacheBytes;
+            }
+        });
+    }
+
     /**
      * Generate a unique QR code for equipment with rich JSON data
      * @param equipmentId The equipment ID
@@ -34,36 +72,16 @@ public class QRCodeService {
      * @return QR code data string containing JSON
      */
     public String generateRichEquipmentQRData(Long equipmentId, String equipmentName, String location, String status) {
-        // Format: JSON-like string for easy parsing
-        // Format: EQ-{id}-{randomHash}|{name}|{location}|{status}
-        String uniqueCode = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        String safeName = equipmentName != null ? equipmentName.replaceAll("[|:]", "_") : "Equipment";
-        String safeLocation = location != null ? location.replaceAll("[|:]", "_") : "Unknown";
-        String safeStatus = status != null ? status : "AVAILABLE";
-        
-        return String.format("EQ-%d-%s|%s|%s|%s", 
-            equipmentId, 
-            uniqueCode,
-            safeName,
-            safeLocation,
-            safeStatus
-        );
+        // Format: EQ1:{kid}:{id}:{mac}|{name}|{location}|{status}
+        return QrPayloadCodec.encodeSignedRich(qrTokenService.issue(equipmentId), equipmentName, location, status);
     }
     
     /**
-     * Generate a unique QR code for equipment
-     * @param equipmentId The equipment ID
-     * @param equipmentName The equipment name
+     * Render an equipment label
+     * @param qrData Signed token stored on the equipment, from generateSimpleQRData
      * @return Base64 encoded QR code image
      */
-    public String generateEquipmentQRCode(Long equipmentId, String equipmentName) throws WriterException, IOException {
-        // Create unique QR data with timestamp for security
-        String qrData = String.format("EQUIPMENT:%d:%s:%s", 
-            equipmentId, 
-            equipmentName.replaceAll(":", "_"), 
-            UUID.randomUUID().toString().substring(0, 8)
-        );
-        
+    public String generateEquipmentQRCode(String qrData) throws WriterException, IOException {
         return generateQRCodeImage(qrData);
     }
 
@@ -75,12 +93,7 @@ public class QRCodeService {
      * @return Base64 encoded QR code image
      */
     public String generateBookingQRCode(Long bookingId, Long equipmentId, String action) throws WriterException, IOException {
-        String qrData = String.format("BOOKING:%d:EQUIPMENT:%d:ACTION:%s:TIME:%s", 
-            bookingId, 
-            equipmentId, 
-            action,
-            LocalDateTime.now().toString()
-        );
+        String qrData = QrPayloadCodec.encodeBooking(bookingId, equipmentId, action, LocalDateTime.now().toString());
         
         return generateQRCodeImage(qrData);
     }
@@ -91,56 +104,120 @@ public class QRCodeService {
      * @return Base64 encoded PNG image
      */
     private String generateQRCodeImage(String data) throws WriterException, IOException {
+        byte[] imageBytes = renderPng(data, QR_CODE_WIDTH, ErrorCorrectionLevel.H);
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(imageBytes);
+    }
+
+    /**
+     * Render QR code data as PNG bytes, reusing earlier renders of the same payload
+     * @param data The data to encode in QR code
+     * @param size Width and height in pixels
+     * @param errorCorrection Error correction level
+     * @return PNG image bytes (shared, do not modify)
+     */
+    public byte[] renderPng(String data, int size, ErrorCorrectionLevel errorCorrection) throws WriterException, IOException {
+        RenderKey key = new RenderKey(data, size, errorCorrection);
+        synchronized (renderCache) {
+            byte[] cached = renderCache.get(key);
+            if (cached != null) {
+                renderCacheHits.increment();
+                return cached;
+            }
+        }
+
+        byte[] imageBytes = renderPngUncached(data, size, errorCorrection);
+
+        synchronized (renderCache) {
+            byte[] previous = renderCache.put(key, imageBytes);
+            renderCacheBytes += imageBytes.length - (previous != null ? previous.length : 0);
+
+            Iterator<byte[]> eldest = renderCache.values().iterator();
+            while ((renderCache.size() > RENDER_CACHE_MAX_ENTRIES || renderCacheBytes > RENDER_CACHE_MAX_BYTES)
+                    && renderCache.size() > 1) {
+                renderCacheBytes -= eldest.next().length;
+                eldest.remove();
+            }
+        }
+        return imageBytes;
+    }
+
+    /**
+     * Render a PNG without reading or filling the render cache, for bulk exports
+     * whose one-off codes would otherwise evict the codes served on every scan
+     * @param data The data to encode in QR code
+     * @param size Width and height in pixels
+     * @param errorCorrection Error correction level
+     * @return PNG image bytes
+     */
+    public byte[] renderPngUncached(String data, int size, ErrorCorrectionLevel errorCorrection) throws WriterException, IOException {
+        long started = System.nanoTime();
+        BufferedImage qrImage = renderImage(data, size, errorCorrection);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(qrImage, "PNG", baos);
+        byte[] imageBytes = baos.toByteArray();
+        renderTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return imageBytes;
+    }
+
+    /**
+     * Render QR code data to an image without caching, for callers that compose it further
+     * @param data The data to encode in QR code
+     * @param size Width and height in pixels
+     * @param errorCorrection Error correction level
+     * @return QR code image
+     */
+    public BufferedImage renderImage(String data, int size, ErrorCorrectionLevel errorCorrection) throws WriterException {
         // Configure QR code generation
         Map<EncodeHintType, Object> hints = new HashMap<>();
-        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
+        hints.put(EncodeHintType.ERROR_CORRECTION, errorCorrection);
         hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
         hints.put(EncodeHintType.MARGIN, 1);
 
         // Generate QR code matrix
         QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(data, BarcodeFormat.QR_CODE, QR_CODE_WIDTH, QR_CODE_HEIGHT, hints);
+        BitMatrix bitMatrix = qrCodeWriter.encode(data, BarcodeFormat.QR_CODE, size, size, hints);
 
         // Convert to BufferedImage
-        BufferedImage qrImage = MatrixToImageWriter.toBufferedImage(bitMatrix);
-
-        // Convert to Base64
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(qrImage, "PNG", baos);
-        byte[] imageBytes = baos.toByteArray();
-        
-        return "data:image/png;base64," + Base64.getEncoder().encodeToString(imageBytes);
+        return MatrixToImageWriter.toBufferedImage(bitMatrix);
     }
 
     /**
-     * Validate and parse QR code data for equipment
+     * Validate and parse QR code data for equipment.
+     * Accepts signed EQ1: tokens that verify, and unless qr.token.require-signed
+     * is set, the unsigned EQ-..., QR_..., EQUIPMENT:... and bare id formats.
      * @param qrData The scanned QR code data
      * @return Map containing parsed data
      */
     public Map<String, Object> validateEquipmentQRCode(String qrData) {
+        QrPayload payload = QrPayloadCodec.parse(qrData);
         Map<String, Object> result = new HashMap<>();
-        
-        try {
-            String[] parts = qrData.split(":");
-            
-            if (parts.length >= 3 && "EQUIPMENT".equals(parts[0])) {
-                result.put("valid", true);
-                result.put("type", "EQUIPMENT");
-                result.put("equipmentId", Long.parseLong(parts[1]));
-                result.put("equipmentName", parts[2]);
-                
-                if (parts.length >= 4) {
-                    result.put("uniqueCode", parts[3]);
-                }
-            } else {
-                result.put("valid", false);
-                result.put("error", "Invalid QR code format");
-            }
-        } catch (Exception e) {
+
+        if (payload == null || payload.isBooking()) {
             result.put("valid", false);
-            result.put("error", "Failed to parse QR code: " + e.getMessage());
+            result.put("error", "Invalid QR code format");
+            return result;
         }
-        
+        if (qrTokenService.isRejected(qrData)) {
+            result.put("valid", false);
+            result.put("error", payload.format() == QrPayload.Format.SIGNED
+                    ? "QR code signature is invalid or revoked"
+                    : "Unsigned QR codes are no longer accepted");
+            return result;
+        }
+
+        result.put("valid", true);
+        result.put("type", "EQUIPMENT");
+        result.put("format", payload.format().name());
+        result.put("equipmentId", payload.equipmentId());
+        if (payload.name() != null) result.put("equipmentName", payload.name());
+        if (payload.format() == QrPayload.Format.SIGNED) {
+            result.put("keyId", payload.code());
+        } else if (payload.code() != null) {
+            result.put("uniqueCode", payload.code());
+        }
+        if (payload.location() != null) result.put("location", payload.location());
+        if (payload.status() != null) result.put("status", payload.status());
         return result;
     }
 
@@ -150,40 +227,31 @@ public class QRCodeService {
      * @return Map containing parsed data
      */
     public Map<String, Object> validateBookingQRCode(String qrData) {
+        // Format: BOOKING:id:EQUIPMENT:id:ACTION:action:TIME:timestamp
+        QrPayload payload = QrPayloadCodec.parse(qrData);
         Map<String, Object> result = new HashMap<>();
-        
-        try {
-            // Format: BOOKING:id:EQUIPMENT:id:ACTION:action:TIME:timestamp
-            String[] parts = qrData.split(":");
-            
-            if (parts.length >= 8 && "BOOKING".equals(parts[0]) && "EQUIPMENT".equals(parts[2]) && "ACTION".equals(parts[4])) {
-                result.put("valid", true);
-                result.put("type", "BOOKING");
-                result.put("bookingId", Long.parseLong(parts[1]));
-                result.put("equipmentId", Long.parseLong(parts[3]));
-                result.put("action", parts[5]);
-                
-                if (parts.length >= 8 && "TIME".equals(parts[6])) {
-                    result.put("timestamp", parts[7]);
-                }
-            } else {
-                result.put("valid", false);
-                result.put("error", "Invalid booking QR code format");
-            }
-        } catch (Exception e) {
+
+        if (payload == null || !payload.isBooking()) {
             result.put("valid", false);
-            result.put("error", "Failed to parse booking QR code: " + e.getMessage());
+            result.put("error", "Invalid booking QR code format");
+            return result;
         }
-        
+
+        result.put("valid", true);
+        result.put("type", "BOOKING");
+        result.put("bookingId", payload.bookingId());
+        result.put("equipmentId", payload.equipmentId());
+        result.put("action", payload.action());
+        if (payload.timestamp() != null) result.put("timestamp", payload.timestamp());
         return result;
     }
 
     /**
      * Generate simple text-based QR code data
      * @param equipmentId The equipment ID
-     * @return QR code data string
+     * @return Signed QR token, see QrTokenService
      */
     public String generateSimpleQRData(Long equipmentId) {
-        return String.format("EQ-%d-%s", equipmentId, UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        return qrTokenService.issue(equipmentId);
     }
 }
@@ -0,0 +1,162 @@
+package com.example.backend.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes QR codes from uploaded camera photos for phones that can't decode on device.
+ *
+ * Decoding runs on a small fixed pool with a bounded queue, so a burst of uploads
+ * is turned away immediately instead of piling up CPU and heap on request threads.
+ * Callers get a future, so no request thread waits while a photo is decoded.
+ * Photos are subsampled while they are read, which keeps a 12 MP image to a few MB.
+ */
+@Service
+public class QRDecodeService {
+
+    private static final Map<DecodeHintType, Object> HINTS = new EnumMap<>(DecodeHintType.class);
+
+    static {
+        HINTS.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+        HINTS.put(DecodeHintType.POSSIBLE_FORMATS, List.of(BarcodeFormat.QR_CODE));
+        HINTS.put(DecodeHintType.CHARACTER_SET, "UTF-8");
+    }
+
+    private final ThreadPoolExecutor decodePool;
+    private final long timeoutMillis;
+    private final int maxSide;
+
+    public QRDecodeService(@Value("${qr.decode.threads:0}") int threads,
+                           @Value("${qr.decode.queue-capacity:16}") int queueCapacity,
+                           @Value("${qr.decode.timeout-ms:5000}") long timeoutMillis,
+                           @Value("${qr.decode.max-side:1600}") int maxSide) {
+        int poolSize = threads > 0 ? threads : Math.min(2, Runtime.getRuntime().availableProcessors());
+        AtomicInteger counter = new AtomicInteger();
+        this.decodePool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "qr-decode-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+        this.maxSide = maxSide;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        decodePool.shutdownNow();
+    }
+
+    /**
+     * Decode the QR code in a photo without blocking the caller
+     * @param image Encoded image bytes (JPEG, PNG, ...)
+     * @return Decoded text, or null if no QR code was found. Fails with IllegalArgumentException
+     *         if the bytes are not a readable image, or TimeoutException if decoding took
+     *         longer than qr.decode.timeout-ms.
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public CompletableFuture<String> decode(byte[] image) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Future<?> task = decodePool.submit(() -> {
+            try {
+                result.complete(decodeNow(image));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((text, e) -> {
+            // Free the decode thread once nobody is waiting for its answer
+            if (e instanceof TimeoutException) task.cancel(true);
+        });
+        return result;
+    }
+
+    private String decodeNow(byte[] image) {
+        BufferedImage photo = readDownscaled(image);
+        LuminanceSource source = new BufferedImageLuminanceSource(photo);
+
+        // Hybrid copes with uneven light; the global histogram one with blur and low contrast
+        String text = tryDecode(new BinaryBitmap(new HybridBinarizer(source)));
+        if (text == null && !Thread.currentThread().isInterrupted()) {
+            text = tryDecode(new BinaryBitmap(new GlobalHistogramBinarizer(source)));
+        }
+        if (text == null && !Thread.currentThread().isInterrupted()) {
+            // Light-on-dark codes, e.g. engraved or printed on dark plates
+            text = tryDecode(new BinaryBitmap(new HybridBinarizer(source.invert())));
+        }
+        return text;
+    }
+
+    private static String tryDecode(BinaryBitmap bitmap) {
+        try {
+            Result result = new QRCodeReader().decode(bitmap, HINTS);
+            return result.getText();
+        } catch (ReaderException e) {
+            // Not found, or a code was seen but failed its checksum
+            return null;
+        }
+    }
+
+    /**
+     * Read the image with source subsampling so the longest side is at most maxSide,
+     * without ever holding the full-resolution raster
+     */
+    private BufferedImage readDownscaled(byte[] image) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int step = Math.max(1, (Math.max(width, height) + maxSide - 1) / maxSide);
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+                if (decoded == null) throw new IllegalArgumentException("Image could not be decoded");
+                return decoded;
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Image could not be decoded: " + e.getMessage());
+        }
+    }
+}
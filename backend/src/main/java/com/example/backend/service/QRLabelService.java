@@ -0,0 +1,195 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Equipment;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Bulk QR label printing for a depot.
+ *
+ * Labels (or whole sheet pages) are rendered on a small dedicated ForkJoinPool
+ * and written into a ZIP stream in order as they finish. Only a sliding window
+ * of renders is in flight, so memory stays flat however many labels are asked for.
+ */
+@Service
+public class QRLabelService {
+
+    // A4 at 150 dpi, 3 x 4 labels per page
+    private static final int PAGE_WIDTH = 1240;
+    private static final int PAGE_HEIGHT = 1754;
+    private static final int COLUMNS = 3;
+    private static final int ROWS = 4;
+    private static final int LABELS_PER_PAGE = COLUMNS * ROWS;
+    private static final int LABEL_QR_SIZE = 300;
+    private static final int PAGE_MARGIN = 40;
+
+    private final QRCodeService qrCodeService;
+    private final ForkJoinPool renderPool;
+    private final int window;
+
+    public QRLabelService(QRCodeService qrCodeService,
+                          @Value("${qr.labels.parallelism:0}") int parallelism) {
+        this.qrCodeService = qrCodeService;
+        int threads = parallelism > 0 ? parallelism : Math.min(4, Runtime.getRuntime().availableProcessors());
+        this.renderPool = new ForkJoinPool(threads);
+        this.window = threads * 2;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    /**
+     * One PNG per equipment, named by equipment id
+     */
+    public void writeLabelZip(List<Equipment> equipment, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        streamInOrder(zip, equipment.size(), i -> {
+            Equipment e = equipment.get(i);
+            // Uncached: a depot export would otherwise push every scanned code out of the render cache
+            byte[] png = qrCodeService.renderPngUncached(payload(e), LABEL_QR_SIZE, ErrorCorrectionLevel.H);
+            return new Entry("equipment-" + e.id + ".png", png);
+        });
+        zip.finish();
+        zip.flush();
+    }
+
+    /**
+     * Printable A4 pages with name and id under each code, one PNG per page
+     */
+    public void writeSheetZip(List<Equipment> equipment, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        int pages = (equipment.size() + LABELS_PER_PAGE - 1) / LABELS_PER_PAGE;
+        streamInOrder(zip, pages, page -> {
+            int from = page * LABELS_PER_PAGE;
+            int to = Math.min(from + LABELS_PER_PAGE, equipment.size());
+            byte[] png = toPng(renderPage(equipment.subList(from, to)));
+            return new Entry(String.format("sheet-%03d.png", page + 1), png);
+        });
+        zip.finish();
+        zip.flush();
+    }
+
+    private record Entry(String name, byte[] data) {}
+
+    private interface EntryRenderer {
+        Entry render(int index) throws Exception;
+    }
+
+    private void streamInOrder(ZipOutputStream zip, int count, EntryRenderer renderer) throws IOException {
+        Deque<ForkJoinTask<Entry>> inFlight = new ArrayDeque<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                final int index = i;
+                inFlight.addLast(renderPool.submit((Callable<Entry>) () -> renderer.render(index)));
+                if (inFlight.size() >= window) {
+                    writeEntry(zip, inFlight.pollFirst().join());
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                writeEntry(zip, inFlight.pollFirst().join());
+            }
+        } finally {
+            // Client went away or a render failed: don't keep rendering for nobody
+            inFlight.forEach(task -> task.cancel(true));
+        }
+    }
+
+    private static void writeEntry(ZipOutputStream zip, Entry entry) throws IOException {
+        // PNG is already deflated, so store it as-is
+        CRC32 crc = new CRC32();
+        crc.update(entry.data());
+        ZipEntry zipEntry = new ZipEntry(entry.name());
+        zipEntry.setMethod(ZipEntry.STORED);
+        zipEntry.setSize(entry.data().length);
+        zipEntry.setCrc(crc.getValue());
+        zip.putNextEntry(zipEntry);
+        zip.write(entry.data());
+        zip.closeEntry();
+        zip.flush();
+    }
+
+    private BufferedImage renderPage(List<Equipment> labels) throws Exception {
+        BufferedImage page = new BufferedImage(PAGE_WIDTH, PAGE_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = page.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, PAGE_WIDTH, PAGE_HEIGHT);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(Color.BLACK);
+
+            int cellWidth = (PAGE_WIDTH - 2 * PAGE_MARGIN) / COLUMNS;
+            int cellHeight = (PAGE_HEIGHT - 2 * PAGE_MARGIN) / ROWS;
+            Font nameFont = new Font(Font.SANS_SERIF, Font.BOLD, 22);
+            Font idFont = new Font(Font.SANS_SERIF, Font.PLAIN, 18);
+
+            for (int i = 0; i < labels.size(); i++) {
+                Equipment e = labels.get(i);
+                int x = PAGE_MARGIN + (i % COLUMNS) * cellWidth;
+                int y = PAGE_MARGIN + (i / COLUMNS) * cellHeight;
+
+                BufferedImage qr = qrCodeService.renderImage(payload(e), LABEL_QR_SIZE, ErrorCorrectionLevel.H);
+                g.drawImage(qr, x + (cellWidth - LABEL_QR_SIZE) / 2, y + 10, null);
+
+                int textY = y + LABEL_QR_SIZE + 40;
+                drawCentered(g, nameFont, e.name != null ? e.name : "Equipment", x, cellWidth, textY);
+                drawCentered(g, idFont, "ID " + e.id, x, cellWidth, textY + 28);
+            }
+        } finally {
+            g.dispose();
+        }
+        return page;
+    }
+
+    /**
+     * Code printed on the label; items without one get the same fallback as the image endpoint
+     */
+    private static String payload(Equipment e) {
+        return e.qrCode != null && !e.qrCode.isEmpty() ? e.qrCode : "QR_" + e.id;
+    }
+
+    private static void drawCentered(Graphics2D g, Font font, String text, int x, int width, int baseline) {
+        g.setFont(font);
+        FontMetrics metrics = g.getFontMetrics();
+        String fitted = text;
+        while (fitted.length() > 3 && metrics.stringWidth(fitted) > width - 20) {
+            fitted = fitted.substring(0, fitted.length() - 2);
+        }
+        if (!fitted.equals(text)) fitted = fitted + "…";
+        g.drawString(fitted, x + (width - metrics.stringWidth(fitted)) / 2, baseline);
+    }
+
+    private static byte[] toPng(BufferedImage image) {
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ImageIO.write(image, "PNG", baos);
+            return baos.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.backend.service;
+
+import com.example.backend.util.KeyFiles;
+import com.example.backend.util.QrPayloadCodec;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Signed equipment QR tokens: EQ1:{kid}:{equipmentId}:{mac}
+ *
+ * The mac is a truncated HMAC-SHA256 over everything before it, Base32 encoded,
+ * so the whole token stays in the QR alphanumeric character set. A scan is
+ * checked with one HMAC before any database work; forged codes and codes from
+ * retired keys never reach a query.
+ *
+ * Printed labels live for years, so keys are not rotated automatically. To
+ * re-issue labels, add a key and point "active" at it; to revoke old labels,
+ * delete their key from the file. Replicas pick up edits on the next refresh.
+ */
+@Service
+public class QrTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(QrTokenService.class);
+
+    private static final String PREFIX = QrPayloadCodec.SIGNED_PREFIX;
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final char[] BASE32 = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567".toCharArray();
+
+    // 80 bits of mac is 16 Base32 characters with no padding
+    private static final int MAC_BYTES = 10;
+    private static final int MAC_CHARS = 16;
+    private static final int KID_CHARS = 4;
+    private static final int MAX_ID_DIGITS = 18;
+
+    private record SigningKey(String kid, ThreadLocal<Mac> mac) {}
+
+    private record KeySet(String activeKid, Map<String, SigningKey> byKid) {}
+
+    private final Path keyFile;
+    private final boolean requireSigned;
+    private final SecureRandom random = new SecureRandom();
+
+    private volatile KeySet keys = new KeySet(null, Map.of());
+
+    public QrTokenService(@Value("${qr.token.keys-path:./data/qr-keys.properties}") String keyFile,
+                          @Value("${qr.token.require-signed:false}") boolean requireSigned) {
+        this.keyFile = Path.of(keyFile).toAbsolutePath();
+        this.requireSigned = requireSigned;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!Files.exists(keyFile)) {
+            createKeyFile();
+        }
+        refresh();
+        if (keys.activeKid() == null) {
+            throw new IllegalStateException("No active QR signing key in " + keyFile);
+        }
+    }
+
+    /**
+     * Pick up keys added or revoked by editing the key file
+     */
+    @Scheduled(fixedDelayString = "${qr.token.refresh-ms:300000}", initialDelayString = "${qr.token.refresh-ms:300000}")
+    public void refresh() {
+        try {
+            keys = read();
+        } catch (IOException | IllegalArgumentException e) {
+            // Keep verifying with the keys already in memory
+            log.warn("Could not read QR key file {}: {}", keyFile, e.getMessage());
+        }
+    }
+
+    /**
+     * New signed token for an equipment item, using the active key
+     */
+    public String issue(long equipmentId) {
+        KeySet current = keys;
+        SigningKey key = current.byKid().get(current.activeKid());
+        String body = PREFIX + key.kid() + ':' + equipmentId;
+        return body + ':' + mac(key, body, 0, body.length());
+    }
+
+    public static boolean isSigned(String qrData) {
+        return qrData != null && qrData.startsWith(PREFIX);
+    }
+
+    /**
+     * Equipment id of a genuine signed token
+     * @param qrData Raw QR text
+     * @return Equipment id, or null if the token is malformed, forged or its key was revoked
+     */
+    public Long verify(String qrData) {
+        if (!isSigned(qrData)) return null;
+
+        int kidEnd = qrData.indexOf(':', PREFIX.length());
+        if (kidEnd != PREFIX.length() + KID_CHARS) return null;
+        int idEnd = qrData.indexOf(':', kidEnd + 1);
+        if (idEnd < 0 || idEnd - kidEnd - 1 > MAX_ID_DIGITS) return null;
+        // Anything after the mac (e.g. a "|name" suffix) is display text and not signed
+        int macEnd = idEnd + 1 + MAC_CHARS;
+        if (macEnd > qrData.length() || (macEnd < qrData.length() && qrData.charAt(macEnd) != '|')) return null;
+
+        long id = 0;
+        for (int i = kidEnd + 1; i < idEnd; i++) {
+            char c = qrData.charAt(i);
+            if (c < '0' || c > '9') return null;
+            id = id * 10 + (c - '0');
+        }
+        if (idEnd == kidEnd + 1) return null;
+
+        SigningKey key = keys.byKid().get(qrData.substring(PREFIX.length(), kidEnd));
+        if (key == null) return null;
+
+        String expected = mac(key, qrData, 0, idEnd);
+        int diff = 0;
+        for (int i = 0; i < MAC_CHARS; i++) {
+            diff |= expected.charAt(i) ^ qrData.charAt(idEnd + 1 + i);
+        }
+        return diff == 0 ? id : null;
+    }
+
+    /**
+     * Equipment id from any accepted scan: a verified signed token, or an
+     * unsigned legacy format unless qr.token.require-signed is set
+     */
+    public Long equipmentId(String qrData) {
+        if (isSigned(qrData)) return verify(qrData);
+        return requireSigned ? null : QrPayloadCodec.equipmentId(qrData);
+    }
+
+    /**
+     * True for scans that can be turned away before any lookup: signed tokens
+     * that fail verification, and unsigned codes when only signed ones are accepted
+     */
+    public boolean isRejected(String qrData) {
+        if (isSigned(qrData)) return verify(qrData) == null;
+        return requireSigned;
+    }
+
+    private static String mac(SigningKey key, String data, int from, int to) {
+        Mac mac = key.mac().get();
+        for (int i = from; i < to; i++) {
+            // Tokens are ASCII by construction; anything else simply fails to match
+            mac.update((byte) data.charAt(i));
+        }
+        return base32(mac.doFinal(), MAC_BYTES);
+    }
+
+    private static String base32(byte[] bytes, int length) {
+        char[] out = new char[(length * 8 + 4) / 5];
+        int buffer = 0, bits = 0, o = 0;
+        for (int i = 0; i < length; i++) {
+            buffer = (buffer << 8) | (bytes[i] & 0xff);
+            bits += 8;
+            while (bits >= 5) {
+                out[o++] = BASE32[(buffer >>> (bits - 5)) & 31];
+                bits -= 5;
+            }
+        }
+        if (bits > 0) out[o] = BASE32[(buffer << (5 - bits)) & 31];
+        return new String(out);
+    }
+
+    private KeySet read() throws IOException {
+        Properties props = KeyFiles.read(keyFile);
+        Map<String, SigningKey> byKid = new HashMap<>();
+        for (String name : props.stringPropertyNames()) {
+            if (!name.startsWith("key.") || !name.endsWith(".secret")) continue;
+            String kid = name.substring(4, name.length() - 7);
+            if (kid.length() != KID_CHARS) {
+                log.warn("Ignoring QR key id '{}': must be {} characters", kid, KID_CHARS);
+                continue;
+            }
+            byKid.put(kid, signingKey(kid, Base64.getDecoder().decode(props.getProperty(name))));
+        }
+        String active = props.getProperty("active");
+        if (active == null || !byKid.containsKey(active)) {
+            throw new IllegalArgumentException("active key '" + active + "' is not in the file");
+        }
+        return new KeySet(active, Map.copyOf(byKid));
+    }
+
+    private static SigningKey signingKey(String kid, byte[] secret) {
+        SecretKeySpec spec = new SecretKeySpec(secret, ALGORITHM);
+        return new SigningKey(kid, ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(spec);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(ALGORITHM + " not available", e);
+            }
+        }));
+    }
+
+    /**
+     * First start: write a single active key. The lock makes replicas that start
+     * together agree on one file.
+     */
+    private void createKeyFile() {
+        try {
+            KeyFiles.withLock(keyFile, () -> {
+                if (Files.exists(keyFile)) return null;
+
+                byte[] secret = new byte[32];
+                random.nextBytes(secret);
+                byte[] kidBytes = new byte[3];
+                random.nextBytes(kidBytes);
+                String kid = base32(kidBytes, 3).substring(0, KID_CHARS);
+
+                Properties props = new Properties();
+                props.setProperty("active", kid);
+                props.setProperty("key." + kid + ".secret", Base64.getEncoder().encodeToString(secret));
+                KeyFiles.write(keyFile, props, "QR label signing keys - removing a key revokes every label it signed");
+                log.info("Created QR signing key {}", kid);
+                return null;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create QR key file " + keyFile, e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.backend.service;
+
+import com.example.backend.repository.BookingRepository;
+import com.example.backend.repository.UserBookingStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Active, overdue and lifetime booking counts per user.
+ *
+ * Each BookingChangedEvent adds its status delta to user_booking_stats with a
+ * single UPDATE, so replicas changing the same user's bookings never lose each
+ * other's counts. A user without a row is backfilled from their bookings once;
+ * after that reads never touch the bookings table, however long the history gets.
+ * Reads go through a short-lived in-memory copy that local changes evict.
+ */
+@Service
+public class UserBookingStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserBookingStatsService.class);
+
+    /** Bookings the user currently holds or is about to hold */
+    public static final Set<String> ACTIVE_STATUSES = Set.of("pending", "confirmed", "active", "in-progress");
+
+    public static final String OVERDUE_STATUS = "overdue";
+
+    public record Counts(int active, int overdue, int total) {
+        static final Counts NONE = new Counts(0, 0, 0);
+    }
+
+    private record Cached(Counts counts, long loadedAt) {}
+
+    private final UserBookingStatsRepository statsRepository;
+    private final BookingRepository bookingRepository;
+    private final long cacheMillis;
+
+    private final Map<Long, Cached> cache = new ConcurrentHashMap<>();
+
+    public UserBookingStatsService(UserBookingStatsRepository statsRepository, BookingRepository bookingRepository,
+                                   @Value("${bookings.stats.cache-ms:10000}") long cacheMillis) {
+        this.statsRepository = statsRepository;
+        this.bookingRepository = bookingRepository;
+        // Bounds how long a change made on another replica can go unseen here
+        this.cacheMillis = cacheMillis;
+    }
+
+    public Counts get(Long userId) {
+        if (userId == null) return Counts.NONE;
+        Cached cached = cache.get(userId);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt() < cacheMillis) {
+            return cached.counts();
+        }
+        Counts counts = statsRepository.findById(userId)
+                .map(row -> new Counts(row.activeCount, row.overdueCount, row.totalCount))
+                .orElseGet(() -> {
+                    Counts counted = count(userId);
+                    insert(userId, counted);
+                    return counted;
+                });
+        cache.put(userId, new Cached(counts, System.currentTimeMillis()));
+        return counts;
+    }
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        Long userId = event.booking().userId;
+        if (userId == null) return;
+
+        int active = (isActive(event.booking().status) ? 1 : 0) - (isActive(event.previousStatus()) ? 1 : 0);
+        int overdue = (isOverdue(event.booking().status) ? 1 : 0) - (isOverdue(event.previousStatus()) ? 1 : 0);
+        int total = event.isNew() ? 1 : 0;
+        if (active == 0 && overdue == 0 && total == 0) return;
+
+        cache.remove(userId);
+        if (statsRepository.addTo(userId, active, overdue, total, LocalDateTime.now()) == 0
+                && !insert(userId, count(userId))) {
+            // Someone else created the row since, maybe from counts taken before this
+            // booking committed, so apply the change to it rather than assume it's there
+            statsRepository.addTo(userId, active, overdue, total, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Forget cached counts, e.g. after bookings were changed in bulk outside the event flow
+     */
+    public void evict(Long userId) {
+        cache.remove(userId);
+    }
+
+    private Counts count(Long userId) {
+        return new Counts(
+                (int) bookingRepository.countByUserIdAndStatusIn(userId, ACTIVE_STATUSES),
+                (int) bookingRepository.countByUserIdAndStatusIn(userId, Set.of(OVERDUE_STATUS)),
+                (int) bookingRepository.countByUserId(userId));
+    }
+
+    /**
+     * Create the user's row from counts of their bookings
+     * @return False if another request or replica created it first
+     */
+    private boolean insert(Long userId, Counts counts) {
+        try {
+            statsRepository.insert(userId, counts.active(), counts.overdue(), counts.total(), LocalDateTime.now());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Booking stats for user {} were backfilled concurrently", userId);
+            return false;
+        }
+    }
+
+    private static boolean isActive(String status) {
+        return status != null && ACTIVE_STATUSES.contains(status);
+    }
+
+    private static boolean isOverdue(String status) {
+        return OVERDUE_STATUS.equals(status);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.backend.service;
+
+import com.example.backend.model.User;
+
+/**
+ * Published after a new account was saved.
+ */
+public record UserRegisteredEvent(User user) {}
@@ -0,0 +1,74 @@
+package com.example.backend.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Properties;
+
+/**
+ * Reading and writing the secret key files shared by every replica (JWT key
+ * ring, QR label keys).
+ *
+ * Writers take an exclusive lock on a sibling ".lock" file, so replicas that
+ * change a key file together do it one at a time. New contents go to an
+ * owner-only temp file that is then moved over the key file atomically, so
+ * readers see either the old file or the new one.
+ */
+public final class KeyFiles {
+
+    /** Work done while holding a key file's lock */
+    public interface Locked<T> {
+        T run() throws IOException;
+    }
+
+    private KeyFiles() {}
+
+    public static Properties read(Path keyFile) throws IOException {
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(keyFile)) {
+            props.load(in);
+        }
+        return props;
+    }
+
+    /**
+     * Run work under the key file's cross-process lock, creating its directory if needed
+     */
+    public static <T> T withLock(Path keyFile, Locked<T> work) throws IOException {
+        Files.createDirectories(keyFile.getParent());
+        Path lockFile = keyFile.resolveSibling(keyFile.getFileName() + ".lock");
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                return work.run();
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * Replace the key file's contents atomically. Call under withLock.
+     */
+    public static void write(Path keyFile, Properties props, String comment) throws IOException {
+        Path tmp = keyFile.resolveSibling(keyFile.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        try {
+            // Owner-only from the start, so the secret is never readable by others
+            Files.createFile(tmp, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            // Non-POSIX filesystem (Windows dev machines)
+        }
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            props.store(out, comment);
+        }
+        Files.move(tmp, keyFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
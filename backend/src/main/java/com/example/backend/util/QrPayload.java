@@ -0,0 +1,39 @@
+package com.example.backend.util;
+
+/**
+ * A decoded QR payload. Fields that the format does not carry are null
+ * (or -1 for bookingId).
+ */
+public record QrPayload(
+        Format format,
+        long equipmentId,
+        long bookingId,
+        String code,
+        String name,
+        String location,
+        String status,
+        String action,
+        String timestamp
+) {
+
+    public enum Format {
+        /** EQ-{id}-{code}|{name}|{location}|{status} */
+        RICH,
+        /** EQ1:{kid}:{id}:{mac}[|{name}|{location}|{status}], code holds the key id; unverified until QrTokenService says so */
+        SIGNED,
+        /** EQ-{id}-{code} or EQ-{id} */
+        SIMPLE,
+        /** QR_{id} */
+        LEGACY,
+        /** EQUIPMENT:{id}:{name}:{code} */
+        EQUIPMENT,
+        /** BOOKING:{id}:EQUIPMENT:{id}:ACTION:{action}:TIME:{timestamp} */
+        BOOKING,
+        /** Bare numeric equipment id */
+        NUMERIC
+    }
+
+    public boolean isBooking() {
+        return format == Format.BOOKING;
+    }
+}
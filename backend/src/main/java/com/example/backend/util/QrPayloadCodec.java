@@ -0,0 +1,246 @@
+package com.example.backend.util;
+
+/**
+ * Single-pass encoder and decoder for every QR payload format the app has issued.
+ *
+ * Decoding walks the string once with index arithmetic: no regex, no split,
+ * and no exceptions for malformed input, since invalid scans are the common
+ * case during a flood. {@link #equipmentId(String)} allocates nothing at all.
+ */
+public final class QrPayloadCodec {
+
+    /** Signed tokens, see QrTokenService. The codec reads them but cannot verify them. */
+    public static final String SIGNED_PREFIX = "EQ1:";
+
+    private static final String RICH_PREFIX = "EQ-";
+    private static final String LEGACY_PREFIX = "QR_";
+    private static final String EQUIPMENT_PREFIX = "EQUIPMENT:";
+    private static final String BOOKING_PREFIX = "BOOKING:";
+
+    // 18 digits always fit in a long
+    private static final int MAX_ID_DIGITS = 18;
+
+    private QrPayloadCodec() {}
+
+    /**
+     * Decode a scanned payload
+     * @param data Raw QR text
+     * @return Decoded payload, or null if it is not a recognised format
+     */
+    public static QrPayload parse(String data) {
+        if (data == null || data.isEmpty()) return null;
+
+        if (data.startsWith(RICH_PREFIX)) return parseRich(data);
+        if (data.startsWith(SIGNED_PREFIX)) return parseSigned(data);
+        if (data.startsWith(LEGACY_PREFIX)) {
+            long id = digits(data, LEGACY_PREFIX.length(), data.length());
+            return id < 0 ? null : new QrPayload(QrPayload.Format.LEGACY, id, -1, null, null, null, null, null, null);
+        }
+        if (data.startsWith(EQUIPMENT_PREFIX)) return parseEquipment(data);
+        if (data.startsWith(BOOKING_PREFIX)) return parseBooking(data);
+
+        long id = digits(data, 0, data.length());
+        return id < 0 ? null : new QrPayload(QrPayload.Format.NUMERIC, id, -1, null, null, null, null, null, null);
+    }
+
+    /**
+     * Equipment id from any unsigned equipment payload without building a QrPayload.
+     * Signed tokens are not trusted here; use QrTokenService to verify them.
+     * @param data Raw QR text
+     * @return Equipment id, or null for booking codes, signed tokens and unrecognised input
+     */
+    public static Long equipmentId(String data) {
+        if (data == null || data.isEmpty()) return null;
+        int len = data.length();
+        long id;
+        if (data.startsWith(RICH_PREFIX)) {
+            int end = idEnd(data, RICH_PREFIX.length());
+            if (end < len && data.charAt(end) != '-') return null;
+            id = digits(data, RICH_PREFIX.length(), end);
+        } else if (data.startsWith(LEGACY_PREFIX)) {
+            id = digits(data, LEGACY_PREFIX.length(), len);
+        } else if (data.startsWith(EQUIPMENT_PREFIX)) {
+            int end = idEnd(data, EQUIPMENT_PREFIX.length());
+            if (end < len && data.charAt(end) != ':') return null;
+            id = digits(data, EQUIPMENT_PREFIX.length(), end);
+        } else if (data.startsWith(BOOKING_PREFIX)) {
+            return null;
+        } else {
+            id = digits(data, 0, len);
+        }
+        return id < 0 ? null : id;
+    }
+
+    public static String encodeRich(long equipmentId, String code, String name, String location, String status) {
+        return new StringBuilder(64)
+                .append(RICH_PREFIX).append(equipmentId).append('-').append(code)
+                .append('|').append(sanitize(name, "Equipment"))
+                .append('|').append(sanitize(location, "Unknown"))
+                .append('|').append(status != null ? status : "AVAILABLE")
+                .toString();
+    }
+
+    /**
+     * Signed token followed by human-readable details, which are not covered by the signature
+     */
+    public static String encodeSignedRich(String signedToken, String name, String location, String status) {
+        return new StringBuilder(signedToken.length() + 48)
+                .append(signedToken)
+                .append('|').append(sanitize(name, "Equipment"))
+                .append('|').append(sanitize(location, "Unknown"))
+                .append('|').append(status != null ? status : "AVAILABLE")
+                .toString();
+    }
+
+    public static String encodeSimple(long equipmentId, String code) {
+        return RICH_PREFIX + equipmentId + '-' + code;
+    }
+
+    public static String encodeBooking(long bookingId, long equipmentId, String action, String timestamp) {
+        return BOOKING_PREFIX + bookingId + ":EQUIPMENT:" + equipmentId + ":ACTION:" + action + ":TIME:" + timestamp;
+    }
+
+    private static QrPayload parseRich(String data) {
+        int len = data.length();
+        int idStart = RICH_PREFIX.length();
+        int idEnd = idEnd(data, idStart);
+        long id = digits(data, idStart, idEnd);
+        if (id < 0) return null;
+        if (idEnd == len) {
+            return new QrPayload(QrPayload.Format.SIMPLE, id, -1, null, null, null, null, null, null);
+        }
+        if (data.charAt(idEnd) != '-') return null;
+
+        int codeEnd = indexOf(data, '|', idEnd + 1);
+        String code = data.substring(idEnd + 1, codeEnd);
+        if (codeEnd == len) {
+            return new QrPayload(QrPayload.Format.SIMPLE, id, -1, code, null, null, null, null, null);
+        }
+
+        int nameEnd = indexOf(data, '|', codeEnd + 1);
+        String name = data.substring(codeEnd + 1, nameEnd);
+        String location = null;
+        String status = null;
+        if (nameEnd < len) {
+            int locationEnd = indexOf(data, '|', nameEnd + 1);
+            location = data.substring(nameEnd + 1, locationEnd);
+            if (locationEnd < len) {
+                status = data.substring(locationEnd + 1, indexOf(data, '|', locationEnd + 1));
+            }
+        }
+        return new QrPayload(QrPayload.Format.RICH, id, -1, code, name, location, status, null, null);
+    }
+
+    private static QrPayload parseSigned(String data) {
+        // EQ1:{kid}:{id}:{mac}[|{name}|{location}|{status}]
+        int len = data.length();
+        int kidEnd = indexOf(data, ':', SIGNED_PREFIX.length());
+        if (kidEnd == len || kidEnd == SIGNED_PREFIX.length()) return null;
+        int idEnd = idEnd(data, kidEnd + 1);
+        long id = digits(data, kidEnd + 1, idEnd);
+        if (id < 0 || idEnd == len || data.charAt(idEnd) != ':') return null;
+
+        String kid = data.substring(SIGNED_PREFIX.length(), kidEnd);
+        int macEnd = indexOf(data, '|', idEnd + 1);
+        String name = null;
+        String location = null;
+        String status = null;
+        if (macEnd < len) {
+            int nameEnd = indexOf(data, '|', macEnd + 1);
+            name = data.substring(macEnd + 1, nameEnd);
+            if (nameEnd < len) {
+                int locationEnd = indexOf(data, '|', nameEnd + 1);
+                location = data.substring(nameEnd + 1, locationEnd);
+                if (locationEnd < len) {
+                    status = data.substring(locationEnd + 1, indexOf(data, '|', locationEnd + 1));
+                }
+            }
+        }
+        return new QrPayload(QrPayload.Format.SIGNED, id, -1, kid, name, location, status, null, null);
+    }
+
+    private static QrPayload parseEquipment(String data) {
+        int len = data.length();
+        int idStart = EQUIPMENT_PREFIX.length();
+        int idEnd = idEnd(data, idStart);
+        long id = digits(data, idStart, idEnd);
+        if (id < 0 || (idEnd < len && data.charAt(idEnd) != ':')) return null;
+
+        // Like String.split, trailing empty fields count as absent
+        String name = null;
+        String code = null;
+        if (idEnd < len && !onlySeparators(data, idEnd, ':')) {
+            int nameEnd = indexOf(data, ':', idEnd + 1);
+            name = data.substring(idEnd + 1, nameEnd);
+            if (nameEnd < len && !onlySeparators(data, nameEnd, ':')) {
+                code = data.substring(nameEnd + 1, indexOf(data, ':', nameEnd + 1));
+            }
+        }
+        return new QrPayload(QrPayload.Format.EQUIPMENT, id, -1, code, name, null, null, null, null);
+    }
+
+    private static QrPayload parseBooking(String data) {
+        int len = data.length();
+        int bookingStart = BOOKING_PREFIX.length();
+        int bookingEnd = idEnd(data, bookingStart);
+        long bookingId = digits(data, bookingStart, bookingEnd);
+        if (bookingId < 0 || !data.startsWith(":EQUIPMENT:", bookingEnd)) return null;
+
+        int equipmentStart = bookingEnd + ":EQUIPMENT:".length();
+        int equipmentEnd = idEnd(data, equipmentStart);
+        long equipmentId = digits(data, equipmentStart, equipmentEnd);
+        if (equipmentId < 0 || !data.startsWith(":ACTION:", equipmentEnd)) return null;
+
+        int actionStart = equipmentEnd + ":ACTION:".length();
+        int actionEnd = indexOf(data, ':', actionStart);
+        if (actionEnd == len) return null;
+        String action = data.substring(actionStart, actionEnd);
+
+        // Two more fields are required; the timestamp itself contains colons
+        int tagEnd = indexOf(data, ':', actionEnd + 1);
+        if (tagEnd == len || onlySeparators(data, tagEnd, ':')) return null;
+        String timestamp = data.startsWith(":TIME:", actionEnd) ? data.substring(tagEnd + 1) : null;
+
+        return new QrPayload(QrPayload.Format.BOOKING, equipmentId, bookingId, null, null, null, null, action, timestamp);
+    }
+
+    /** End of the run of ASCII digits starting at from */
+    private static int idEnd(String s, int from) {
+        int i = from;
+        while (i < s.length()) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') break;
+            i++;
+        }
+        return i;
+    }
+
+    /** Value of s[from, to) if it is 1..18 ASCII digits, else -1 */
+    private static long digits(String s, int from, int to) {
+        if (to <= from || to - from > MAX_ID_DIGITS) return -1;
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int indexOf(String s, char c, int from) {
+        int i = s.indexOf(c, from);
+        return i < 0 ? s.length() : i;
+    }
+
+    private static boolean onlySeparators(String s, int from, char separator) {
+        for (int i = from; i < s.length(); i++) {
+            if (s.charAt(i) != separator) return false;
+        }
+        return true;
+    }
+
+    private static String sanitize(String value, String fallback) {
+        if (value == null) return fallback;
+        return value.replace('|', '_').replace(':', '_');
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Text booking dates become typed columns without losing values that don't parse
+ */
+class BookingSchemaMigrationTest {
+
+    @Test
+    void keepsOriginalTextWhereValuesDoNotParse() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:booking-migration;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE bookings (id BIGINT PRIMARY KEY, start_date VARCHAR(255), end_date VARCHAR(255), " +
+                "start_time VARCHAR(255), end_time VARCHAR(255), check_in_time VARCHAR(255), check_out_time VARCHAR(255))");
+        jdbc.update("INSERT INTO bookings (id, start_date, end_date, start_time, end_time) VALUES (1, '2024-06-01', '2024-06-02', '08:00', '18:00')");
+        jdbc.update("INSERT INTO bookings (id, start_date, end_date) VALUES (2, '01/06/2024', 'next tuesday')");
+
+        new BookingSchemaMigration(dataSource).migrate();
+
+        Map<String, Object> parsed = jdbc.queryForMap("SELECT start_date, start_date_text FROM bookings WHERE id = 1");
+        assertThat(((java.sql.Date) parsed.get("START_DATE")).toLocalDate()).isEqualTo(LocalDate.of(2024, 6, 1));
+
+        Map<String, Object> unparseable = jdbc.queryForMap("SELECT start_date, start_date_text, end_date_text FROM bookings WHERE id = 2");
+        assertThat(unparseable.get("START_DATE")).isNull();
+        assertThat(unparseable.get("START_DATE_TEXT")).isEqualTo("01/06/2024");
+        assertThat(unparseable.get("END_DATE_TEXT")).isEqualTo("next tuesday");
+
+        // A second start finds nothing left to do
+        new BookingSchemaMigration(dataSource).migrate();
+        assertThat(jdbc.queryForObject("SELECT end_date_text FROM bookings WHERE id = 2", String.class)).isEqualTo("next tuesday");
+    }
+}
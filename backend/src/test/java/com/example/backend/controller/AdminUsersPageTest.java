@@ -0,0 +1,104 @@
+package com.example.backend.controller;
+
+import com.example.backend.model.User;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The admin user list is always paged, and its search runs on indexed columns
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AdminUsersPageTest {
+
+    private static final int USERS = 120;
+
+    @Autowired private MockMvc mvc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ObjectMapper json;
+
+    private String auth;
+
+    @BeforeEach
+    void seed() {
+        if (!userRepository.existsByEmail("PageUser0@test.local")) {
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                User user = new User();
+                user.name = "Page User " + i;
+                user.email = "PageUser" + i + "@test.local";
+                user.role = "USER";
+                users.add(user);
+            }
+            userRepository.saveAll(users);
+        }
+        auth = "Bearer " + jwtUtil.generateToken(-1L, "admin-test@test.local", "ADMIN");
+    }
+
+    @Test
+    void unpagedRequestReturnsFirstPageAndCursorWalksTheRest() throws Exception {
+        JsonNode first = page("/admin/users");
+        assertThat(first.path("items")).hasSize(50);
+        assertThat(first.path("hasMore").asBoolean()).isTrue();
+
+        List<Long> ids = new ArrayList<>();
+        JsonNode page = first;
+        while (true) {
+            page.path("items").forEach(item -> ids.add(item.path("id").asLong()));
+            if (!page.path("hasMore").asBoolean()) break;
+            page = page("/admin/users?after=" + page.path("nextCursor").asLong());
+        }
+        assertThat(ids).isSorted().doesNotHaveDuplicates().hasSize((int) userRepository.count());
+    }
+
+    @Test
+    void searchMatchesNameOrEmailPrefixIgnoringCase() throws Exception {
+        // pageuser1, pageuser10-19 and pageuser100-119 by email
+        assertThat(page("/admin/users?q=PAGEUSER1&limit=100").path("items")).hasSize(31);
+        // Page User 11 and Page User 110-119 by name
+        assertThat(page("/admin/users?q=page user 11&limit=100").path("items")).hasSize(11);
+        // Paging a search keeps going from the cursor
+        JsonNode first = page("/admin/users?q=pageuser1&limit=20");
+        assertThat(first.path("items")).hasSize(20);
+        JsonNode second = page("/admin/users?q=pageuser1&limit=20&after=" + first.path("nextCursor").asLong());
+        assertThat(second.path("items")).hasSize(11);
+        assertThat(second.path("hasMore").asBoolean()).isFalse();
+    }
+
+    @Test
+    void prefixSearchUsesTheSearchIndexes() {
+        String email = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM users WHERE email_search LIKE 'pageuser1%' ORDER BY id", String.class);
+        String name = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM users WHERE name_search LIKE 'page user%' ORDER BY id", String.class);
+        assertThat(email).containsIgnoringCase("IDX_USERS_EMAIL_SEARCH");
+        assertThat(name).containsIgnoringCase("IDX_USERS_NAME_SEARCH");
+    }
+
+    private JsonNode page(String url) throws Exception {
+        String body = mvc.perform(get(url).header("Authorization", auth))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return json.readTree(body);
+    }
+}
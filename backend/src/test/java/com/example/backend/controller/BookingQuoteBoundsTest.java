@@ -0,0 +1,58 @@
+package com.example.backend.controller;
+
+import com.example.backend.model.Equipment;
+import com.example.backend.repository.EquipmentRepository;
+import com.example.backend.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Quotes for absurd lengths are rejected as bad input, never a 500
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookingQuoteBoundsTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private EquipmentRepository equipmentRepository;
+    @Autowired private JwtUtil jwtUtil;
+
+    @Test
+    void rejectsDurationsBeyondAYear() throws Exception {
+        Equipment tiller = new Equipment();
+        tiller.name = "Quote Tiller";
+        tiller.category = "Tiller";
+        tiller.pricePerHour = 30.0;
+        tiller.pricePerDay = 500.0;
+        tiller.operatorId = -1L;
+        equipmentRepository.save(tiller);
+
+        quote("{\"equipmentId\":" + tiller.id + ",\"durationType\":\"days\",\"duration\":3}")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalAmount").value(1500.0));
+        quote("{\"equipmentId\":" + tiller.id + ",\"durationType\":\"days\",\"duration\":9223372036854775807}")
+            .andExpect(status().isBadRequest());
+        quote("{\"equipmentId\":" + tiller.id + ",\"durationType\":\"hours\",\"duration\":9000}")
+            .andExpect(status().isBadRequest());
+        quote("{\"equipmentId\":" + tiller.id + ",\"startDate\":\"2024-01-01\",\"endDate\":\"2030-01-01\"}")
+            .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions quote(String body) throws Exception {
+        return mvc.perform(post("/bookings/calculate-cost")
+            .header("Authorization", "Bearer " + jwtUtil.generateToken(-1L, "quote@test.local", "USER"))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(body));
+    }
+}
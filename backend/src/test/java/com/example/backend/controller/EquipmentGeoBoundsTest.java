@@ -0,0 +1,48 @@
+package com.example.backend.controller;
+
+import com.example.backend.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Map queries are bounded so one request can't walk the whole grid
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EquipmentGeoBoundsTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private JwtUtil jwtUtil;
+
+    private String auth;
+
+    @BeforeEach
+    void signIn() {
+        auth = "Bearer " + jwtUtil.generateToken(-1L, "geo@test.local", "USER");
+    }
+
+    @Test
+    void nearbyRejectsOversizedOrInvalidQueries() throws Exception {
+        mvc.perform(get("/equipment/nearby?lat=10.5&lng=76.2&radius=50").header("Authorization", auth)).andExpect(status().isOk());
+        mvc.perform(get("/equipment/nearby?lat=10.5&lng=76.2&radius=20000").header("Authorization", auth)).andExpect(status().isBadRequest());
+        mvc.perform(get("/equipment/nearby?lat=10.5&lng=76.2&radius=0").header("Authorization", auth)).andExpect(status().isBadRequest());
+        mvc.perform(get("/equipment/nearby?lat=NaN&lng=76.2").header("Authorization", auth)).andExpect(status().isBadRequest());
+        mvc.perform(get("/equipment/nearby?lat=91&lng=76.2").header("Authorization", auth)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void withinRejectsOversizedOrInvalidBoxes() throws Exception {
+        mvc.perform(get("/equipment/within?minLat=10&minLng=76&maxLat=11&maxLng=77").header("Authorization", auth)).andExpect(status().isOk());
+        mvc.perform(get("/equipment/within?minLat=-90&minLng=-180&maxLat=90&maxLng=180").header("Authorization", auth)).andExpect(status().isBadRequest());
+        mvc.perform(get("/equipment/within?minLat=11&minLng=76&maxLat=10&maxLng=77").header("Authorization", auth)).andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.backend.controller;
+
+import com.example.backend.model.Equipment;
+import com.example.backend.repository.EquipmentRepository;
+import com.example.backend.security.JwtUtil;
+import com.example.backend.service.QRDecodeService;
+import com.example.backend.service.QrTokenService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A freshly generated label scans as the signed token stored on the equipment
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QREquipmentLabelTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private EquipmentRepository equipmentRepository;
+    @Autowired private QRDecodeService qrDecodeService;
+    @Autowired private QrTokenService qrTokenService;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private JwtUtil jwtUtil;
+
+    @Test
+    void generatedImageCarriesTheStoredSignedToken() throws Exception {
+        Equipment harvester = new Equipment();
+        harvester.name = "Label Harvester";
+        harvester.category = "Harvester";
+        harvester.pricePerHour = 900.0;
+        harvester.operatorId = 601L;
+        equipmentRepository.save(harvester);
+
+        String body = mvc.perform(post("/qr/equipment/" + harvester.id + "/generate")
+                .header("Authorization", "Bearer " + jwtUtil.generateToken(601L, "label601@test.local", "OPERATOR")))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        JsonNode response = objectMapper.readTree(body);
+
+        String image = response.path("qrCodeImage").asText();
+        byte[] png = Base64.getDecoder().decode(image.substring(image.indexOf(',') + 1));
+        String scanned = qrDecodeService.decode(png).get(10, TimeUnit.SECONDS);
+
+        assertThat(qrTokenService.verify(scanned)).isEqualTo(harvester.id);
+        assertThat(scanned).isEqualTo(response.path("qrData").asText());
+        assertThat(equipmentRepository.findById(harvester.id).orElseThrow().qrCode).isEqualTo(scanned);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.backend.controller;
+
+import com.example.backend.model.Equipment;
+import com.example.backend.repository.EquipmentRepository;
+import com.example.backend.security.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bulk labels only assign codes to the caller's own equipment and leave the render cache alone
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QRLabelsTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private EquipmentRepository equipmentRepository;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private JwtUtil jwtUtil;
+
+    @Test
+    void assignsMissingCodesOnlyToCallersOwnEquipment() throws Exception {
+        Equipment own = equipment("Own Seeder", 501L);
+        Equipment foreign = equipment("Foreign Seeder", 502L);
+
+        MvcResult started = mvc.perform(post("/qr/labels")
+                .header("Authorization", bearer(501L, "OPERATOR"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"format\":\"zip\",\"equipmentIds\":[" + own.id + "," + foreign.id + "]}"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+        assertThat(equipmentRepository.findById(own.id).orElseThrow().qrCode).isNotBlank();
+        assertThat(equipmentRepository.findById(foreign.id).orElseThrow().qrCode).isNull();
+    }
+
+    @Test
+    void adminsAssignCodesToAnyEquipment() throws Exception {
+        Equipment foreign = equipment("Admin Seeder", 503L);
+
+        MvcResult started = mvc.perform(post("/qr/labels")
+                .header("Authorization", bearer(1L, "ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"equipmentIds\":[" + foreign.id + "]}"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+        assertThat(equipmentRepository.findById(foreign.id).orElseThrow().qrCode).isNotBlank();
+    }
+
+    @Test
+    void bulkExportDoesNotFillRenderCache() throws Exception {
+        Equipment own = equipment("Cache Seeder", 504L);
+        double before = meterRegistry.get("qr.render.cache.bytes").gauge().value();
+
+        MvcResult started = mvc.perform(post("/qr/labels")
+                .header("Authorization", bearer(504L, "OPERATOR"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"format\":\"zip\",\"equipmentIds\":[" + own.id + "]}"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("qr.render.cache.bytes").gauge().value()).isEqualTo(before);
+    }
+
+    @Test
+    void rejectsOversizedIdListBeforeLoading() throws Exception {
+        String ids = Collections.nCopies(2_001, "1").stream().collect(Collectors.joining(","));
+
+        mvc.perform(post("/qr/labels")
+                .header("Authorization", bearer(501L, "OPERATOR"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"equipmentIds\":[" + ids + "]}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private Equipment equipment(String name, Long operatorId) {
+        Equipment e = new Equipment();
+        e.name = name;
+        e.category = "Seeder";
+        e.pricePerHour = 50.0;
+        e.operatorId = operatorId;
+        return equipmentRepository.save(e);
+    }
+
+    private String bearer(Long userId, String role) {
+        return "Bearer " + jwtUtil.generateToken(userId, "labels" + userId + "@test.local", role);
+    }
+}
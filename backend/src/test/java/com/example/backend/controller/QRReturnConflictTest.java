@@ -0,0 +1,132 @@
+package com.example.backend.controller;
+
+import com.example.backend.model.Booking;
+import com.example.backend.model.Equipment;
+import com.example.backend.model.User;
+import com.example.backend.repository.BookingRepository;
+import com.example.backend.repository.EquipmentRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.security.JwtUtil;
+import com.example.backend.service.EquipmentCheckoutService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Returns and check-ins go through the same conditional updates as borrowing:
+ * a replayed return changes nothing, and nobody frees or takes equipment they don't hold
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QRReturnConflictTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EquipmentRepository equipmentRepository;
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private EquipmentCheckoutService checkoutService;
+    @Autowired private JwtUtil jwtUtil;
+
+    @Test
+    void replayedLateReturnChargesOnce() throws Exception {
+        User farmer = farmer("replay-farmer@test.local");
+        Equipment tractor = equipment("Replay Tractor");
+        Booking booking = checkoutService.borrow(booking(tractor, farmer, LocalDateTime.now().minusHours(3)));
+
+        mvc.perform(giveBack(farmer, booking.id, tractor.id)).andExpect(status().isOk());
+        Double charged = bookingRepository.findById(booking.id).orElseThrow().totalAmount;
+
+        mvc.perform(giveBack(farmer, booking.id, tractor.id)).andExpect(status().isConflict());
+        assertThat(bookingRepository.findById(booking.id).orElseThrow().totalAmount).isEqualTo(charged);
+    }
+
+    @Test
+    void returnNamingOtherEquipmentIsRejected() throws Exception {
+        User farmer = farmer("mismatch-farmer@test.local");
+        User neighbour = farmer("mismatch-neighbour@test.local");
+        Equipment own = equipment("Mismatch Own");
+        Equipment held = equipment("Mismatch Held");
+        Booking booking = checkoutService.borrow(booking(own, farmer, LocalDateTime.now()));
+        checkoutService.borrow(booking(held, neighbour, LocalDateTime.now()));
+
+        mvc.perform(giveBack(farmer, booking.id, held.id)).andExpect(status().isBadRequest());
+
+        assertThat(equipmentRepository.findById(held.id).orElseThrow().available).isFalse();
+        assertThat(bookingRepository.findById(booking.id).orElseThrow().status).isEqualTo("confirmed");
+    }
+
+    @Test
+    void checkInOfEquipmentAlreadyOutIsConflict() throws Exception {
+        User farmer = farmer("checkin-farmer@test.local");
+        User neighbour = farmer("checkin-neighbour@test.local");
+        Equipment seeder = equipment("Check-in Seeder");
+        checkoutService.borrow(booking(seeder, neighbour, LocalDateTime.now()));
+        Booking advance = booking(seeder, farmer, LocalDateTime.now());
+        advance.status = "pending";
+        advance = bookingRepository.save(advance);
+
+        mvc.perform(post("/qr/check-in")
+                .header("Authorization", bearer(farmer))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookingId\":" + advance.id + ",\"qrData\":\"EQUIPMENT:" + seeder.id + "\"}"))
+            .andExpect(status().isConflict());
+
+        assertThat(bookingRepository.findById(advance.id).orElseThrow().status).isEqualTo("pending");
+    }
+
+    private RequestBuilder giveBack(User farmer, Long bookingId, Long equipmentId) {
+        return post("/api/qr-scan/return")
+            .header("Authorization", bearer(farmer))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"bookingId\":" + bookingId + ",\"equipmentId\":" + equipmentId + "}");
+    }
+
+    private String bearer(User user) {
+        return "Bearer " + jwtUtil.generateToken(user.id, user.email, user.role);
+    }
+
+    private User farmer(String email) {
+        User farmer = new User();
+        farmer.name = "Return Farmer";
+        farmer.email = email;
+        farmer.role = "USER";
+        return userRepository.save(farmer);
+    }
+
+    private Equipment equipment(String name) {
+        Equipment equipment = new Equipment();
+        equipment.name = name;
+        equipment.category = "Tractor";
+        equipment.pricePerHour = 100.0;
+        equipment.operatorId = -1L;
+        return equipmentRepository.save(equipment);
+    }
+
+    private static Booking booking(Equipment equipment, User farmer, LocalDateTime start) {
+        Booking booking = new Booking();
+        booking.equipmentId = equipment.id;
+        booking.userId = farmer.id;
+        booking.operatorId = equipment.operatorId;
+        booking.durationType = "hours";
+        booking.duration = 1;
+        booking.totalAmount = 100.0;
+        booking.status = "confirmed";
+        booking.startDate = start.toLocalDate();
+        booking.startTime = start.toLocalTime();
+        booking.endDate = start.plusHours(1).toLocalDate();
+        booking.endTime = start.plusHours(1).toLocalTime();
+        return booking;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.backend.controller;
+
+import com.example.backend.model.Equipment;
+import com.example.backend.model.User;
+import com.example.backend.repository.EquipmentRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.security.JwtUtil;
+import com.example.backend.service.QRCodeService;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Photo decoding answers asynchronously, so no request thread waits on the decoder
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QRScanDecodeTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private EquipmentRepository equipmentRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private QRCodeService qrCodeService;
+    @Autowired private JwtUtil jwtUtil;
+
+    @Test
+    void decodesPhotoAndValidatesItsCode() throws Exception {
+        User farmer = new User();
+        farmer.name = "Decode Farmer";
+        farmer.email = "decode-farmer@test.local";
+        farmer.role = "USER";
+        userRepository.save(farmer);
+
+        Equipment sprayer = new Equipment();
+        sprayer.name = "Decode Sprayer";
+        sprayer.category = "Sprayer";
+        sprayer.pricePerHour = 40.0;
+        sprayer.operatorId = -1L;
+        equipmentRepository.save(sprayer);
+        byte[] photo = qrCodeService.renderPngUncached("EQUIPMENT:" + sprayer.id, 400, ErrorCorrectionLevel.M);
+
+        MvcResult started = mvc.perform(upload(photo, farmer.id))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.equipment.id").value(sprayer.id));
+    }
+
+    @Test
+    void unreadableImageIsBadRequest() throws Exception {
+        MvcResult started = mvc.perform(upload("not an image".getBytes(StandardCharsets.UTF_8), -1L))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mvc.perform(asyncDispatch(started)).andExpect(status().isBadRequest());
+    }
+
+    private RequestBuilder upload(byte[] bytes, Long userId) {
+        return multipart("/api/qr-scan/decode")
+            .file(new MockMultipartFile("image", "photo.png", "image/png", bytes))
+            .header("Authorization", "Bearer " + jwtUtil.generateToken(userId, "decode@test.local", "USER"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.backend.controller;
+
+import com.example.backend.security.JwtUtil;
+import com.example.backend.service.QRCodeService;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A decode that runs out of time is a retryable 503, like a full queue
+ */
+@SpringBootTest(properties = "qr.decode.timeout-ms=1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QRScanDecodeTimeoutTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private QRCodeService qrCodeService;
+    @Autowired private JwtUtil jwtUtil;
+
+    @Test
+    void timeoutIsRetryableServiceUnavailable() throws Exception {
+        byte[] photo = qrCodeService.renderPngUncached("EQUIPMENT:1", 1600, ErrorCorrectionLevel.H);
+
+        MvcResult started = mvc.perform(multipart("/api/qr-scan/decode")
+                .file(new MockMultipartFile("image", "photo.png", "image/png", photo))
+                .header("Authorization", "Bearer " + jwtUtil.generateToken(-1L, "timeout@test.local", "USER")))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+    }
+}
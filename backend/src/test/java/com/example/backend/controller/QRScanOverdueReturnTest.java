@@ -0,0 +1,101 @@
+package com.example.backend.controller;
+
+import com.example.backend.model.Booking;
+import com.example.backend.model.Equipment;
+import com.example.backend.model.User;
+import com.example.backend.repository.BookingRepository;
+import com.example.backend.repository.EquipmentRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.security.JwtUtil;
+import com.example.backend.service.BookingChangedEvent;
+import com.example.backend.service.EquipmentCheckoutService;
+import com.example.backend.service.OverdueSweeper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A booking the sweeper marked overdue must still be returnable by scanning the item
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QRScanOverdueReturnTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EquipmentRepository equipmentRepository;
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private EquipmentCheckoutService checkoutService;
+    @Autowired private OverdueSweeper overdueSweeper;
+    @Autowired private ApplicationEventPublisher events;
+    @Autowired private JwtUtil jwtUtil;
+
+    @Test
+    void overdueBookingCanBeValidatedAndReturned() throws Exception {
+        User farmer = new User();
+        farmer.name = "Overdue Farmer";
+        farmer.email = "overdue-farmer@test.local";
+        farmer.role = "USER";
+        userRepository.save(farmer);
+
+        Equipment tractor = new Equipment();
+        tractor.name = "Overdue Tractor";
+        tractor.category = "Tractor";
+        tractor.pricePerHour = 100.0;
+        tractor.operatorId = -1L;
+        equipmentRepository.save(tractor);
+
+        // Borrowed three hours ago for one hour
+        LocalDateTime start = LocalDateTime.now().minusHours(3);
+        Booking booking = new Booking();
+        booking.equipmentId = tractor.id;
+        booking.userId = farmer.id;
+        booking.operatorId = tractor.operatorId;
+        booking.durationType = "hours";
+        booking.duration = 1;
+        booking.status = "confirmed";
+        booking.checkOutTime = start;
+        booking.startDate = start.toLocalDate();
+        booking.startTime = start.toLocalTime();
+        booking.endDate = start.plusHours(1).toLocalDate();
+        booking.endTime = start.plusHours(1).toLocalTime();
+        booking = checkoutService.borrow(booking);
+        events.publishEvent(BookingChangedEvent.of(booking));
+
+        assertThat(overdueSweeper.sweep()).isGreaterThanOrEqualTo(1);
+        assertThat(bookingRepository.findById(booking.id).orElseThrow().status).isEqualTo("overdue");
+
+        String auth = "Bearer " + jwtUtil.generateToken(farmer.id, farmer.email, farmer.role);
+
+        mvc.perform(post("/api/qr-scan/validate")
+                .header("Authorization", auth)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"qrData\":\"EQUIPMENT:" + tractor.id + "\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.hasOverdueItems").value(true))
+            .andExpect(jsonPath("$.canReturn").value(true))
+            .andExpect(jsonPath("$.activeBooking.id").value(booking.id));
+
+        mvc.perform(post("/api/qr-scan/return")
+                .header("Authorization", auth)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookingId\":" + booking.id + ",\"equipmentId\":" + tractor.id + "}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.booking.status").value("overdue-returned"));
+
+        assertThat(equipmentRepository.findById(tractor.id).orElseThrow().available).isTrue();
+    }
+}
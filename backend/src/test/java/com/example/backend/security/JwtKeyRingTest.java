@@ -0,0 +1,73 @@
+package com.example.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keys stay until every token they signed has expired, and a kid another
+ * replica just rotated in verifies straight away.
+ */
+class JwtKeyRingTest {
+
+    private static final long HOUR = 60 * 60 * 1000;
+    private static final long REFRESH_MS = 300_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void keepsOverdueKeyUntilItsSuccessorHasOutlivedItsTokens() throws Exception {
+        // Nobody rotated for nine days, so "late" still signs tokens right up to now;
+        // "early" was replaced by "late" nine days ago and can go
+        long now = System.currentTimeMillis();
+        Path file = dir.resolve("jwt-keyring.properties");
+        Properties props = new Properties();
+        addKey(props, "late", now - 9 * 24 * HOUR);
+        addKey(props, "early", now - 16 * 24 * HOUR);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            props.store(out, null);
+        }
+
+        JwtKeyRing ring = new JwtKeyRing(file.toString(), 168, REFRESH_MS);
+        ring.init();
+
+        assertThat(ring.active().kid()).isNotIn("late", "early");
+        assertThat(ring.find("late")).isNotNull();
+        assertThat(ring.find("early")).isNull();
+    }
+
+    @Test
+    void verifiesTokenFromKeyRotatedMomentsAgoOnAnotherReplica() {
+        String file = dir.resolve("jwt-keyring.properties").toString();
+        JwtKeyRing verifier = new JwtKeyRing(file, 168, REFRESH_MS);
+        verifier.init();
+
+        // Rotation of zero hours makes the second replica rotate as soon as it starts
+        JwtKeyRing signer = new JwtKeyRing(file, 0, REFRESH_MS);
+        signer.init();
+        assertThat(verifier.find(signer.active().kid())).isNull();
+
+        String token = new JwtUtil(signer, new SimpleMeterRegistry()).generateToken(7L, "fresh@test.local", "USER");
+        JwtUtil verifying = new JwtUtil(verifier, new SimpleMeterRegistry());
+
+        VerifiedToken verified = verifying.verify(token);
+        assertThat(verified).isNotNull();
+        assertThat(verified.userId()).isEqualTo(7L);
+    }
+
+    private static void addKey(Properties props, String kid, long created) {
+        byte[] secret = new byte[32];
+        secret[0] = (byte) kid.length();
+        props.setProperty("key." + kid + ".secret", Base64.getEncoder().encodeToString(secret));
+        props.setProperty("key." + kid + ".created", Long.toString(created));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The verified-token cache answers concurrent requests correctly and never vouches for a forgery
+ */
+class JwtUtilTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void concurrentVerificationsReturnEachTokensOwnClaims() throws Exception {
+        JwtKeyRing ring = new JwtKeyRing(dir.resolve("jwt-keyring.properties").toString(), 168, 300_000);
+        ring.init();
+        JwtUtil jwtUtil = new JwtUtil(ring, new SimpleMeterRegistry());
+
+        int users = 500;
+        String[] tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            tokens[i] = jwtUtil.generateToken((long) i, "user" + i + "@test.local", "USER");
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(pool.submit(() -> {
+                    for (int round = 0; round < 20; round++) {
+                        for (int i = 0; i < users; i++) {
+                            VerifiedToken verified = jwtUtil.verify(tokens[i]);
+                            if (verified == null || verified.userId() != i) return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) assertThat(result.get()).isTrue();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        String forged = tokens[0].substring(0, tokens[0].lastIndexOf('.') + 1) + "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA";
+        assertThat(jwtUtil.verify(forged)).isNull();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.backend.service;
+
+import com.example.backend.model.User;
+import com.example.backend.repository.BookingRepository;
+import com.example.backend.repository.DailyMetricRepository;
+import com.example.backend.repository.EquipmentRepository;
+import com.example.backend.repository.PaymentRepository;
+import com.example.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replicas sharing daily_metrics add to it rather than overwrite each other, and each reports the shared totals
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AdminMetricsServiceTest {
+
+    @Autowired private AdminMetricsService metrics;
+    @Autowired private DailyMetricRepository metricRepository;
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private PaymentRepository paymentRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EquipmentRepository equipmentRepository;
+
+    @Test
+    void replicasReportWhatEveryReplicaRecorded() {
+        // A second replica: its own buckets over the same table
+        AdminMetricsService other = new AdminMetricsService(metricRepository, bookingRepository,
+                paymentRepository, userRepository, equipmentRepository);
+        other.load();
+
+        LocalDate day = LocalDate.of(2001, 3, 14);
+        metrics.onUserRegistered(new UserRegisteredEvent(user(day)));
+        other.onUserRegistered(new UserRegisteredEvent(user(day)));
+        other.onUserRegistered(new UserRegisteredEvent(user(day)));
+        metrics.flush();
+        other.flush();
+
+        metrics.reload();
+        other.reload();
+
+        assertThat(metrics.report(day, day).newUsers()).isEqualTo(3);
+        assertThat(other.report(day, day).newUsers()).isEqualTo(3);
+    }
+
+    private static User user(LocalDate joined) {
+        User user = new User();
+        user.joinedAt = joined.atTime(9, 0);
+        return user;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Booking;
+import com.example.backend.model.Equipment;
+import com.example.backend.repository.BookingRepository;
+import com.example.backend.repository.EquipmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent requests for the same equipment: exactly one may win
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EquipmentCheckoutServiceTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired private EquipmentCheckoutService checkoutService;
+    @Autowired private EquipmentRepository equipmentRepository;
+    @Autowired private BookingRepository bookingRepository;
+
+    @Test
+    void onlyOneConcurrentBorrowWins() throws Exception {
+        Equipment tractor = equipment("Race Tractor");
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Booking> saved = race(i -> checkoutService.borrow(booking(tractor, now, now.plusHours(1))));
+
+        assertThat(saved).hasSize(1);
+        assertThat(bookingRepository.findByEquipmentId(tractor.id)).hasSize(1);
+        assertThat(equipmentRepository.findById(tractor.id).orElseThrow().available).isFalse();
+    }
+
+    @Test
+    void onlyOneOverlappingReservationIsSaved() throws Exception {
+        Equipment harvester = equipment("Reserve Harvester");
+        LocalDateTime start = LocalDateTime.now().plusDays(3).withNano(0);
+
+        List<Booking> saved = race(i -> {
+            // Every request overlaps every other one by at least an hour
+            Booking booking = booking(harvester, start.plusMinutes(i), start.plusHours(2).plusMinutes(i));
+            return checkoutService.reserve(booking);
+        });
+
+        assertThat(saved).hasSize(1);
+        assertThat(bookingRepository.findByEquipmentId(harvester.id)).hasSize(1);
+    }
+
+    private interface Attempt {
+        Booking run(int i) throws Exception;
+    }
+
+    /**
+     * Run THREADS attempts released at the same instant
+     * @return Attempts that returned a booking
+     */
+    private static List<Booking> race(Attempt attempt) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Booking>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int n = i;
+                Callable<Booking> task = () -> {
+                    start.await();
+                    return attempt.run(n);
+                };
+                futures.add(pool.submit(task));
+            }
+            start.countDown();
+            List<Booking> won = new ArrayList<>();
+            for (Future<Booking> future : futures) {
+                Booking booking = future.get();
+                if (booking != null) won.add(booking);
+            }
+            return won;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Equipment equipment(String name) {
+        Equipment equipment = new Equipment();
+        equipment.name = name;
+        equipment.category = "Harvester";
+        equipment.pricePerHour = 100.0;
+        equipment.operatorId = -1L;
+        return equipmentRepository.save(equipment);
+    }
+
+    private static Booking booking(Equipment equipment, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.equipmentId = equipment.id;
+        booking.userId = -1L;
+        booking.operatorId = equipment.operatorId;
+        booking.status = "confirmed";
+        booking.startDate = start.toLocalDate();
+        booking.startTime = start.toLocalTime();
+        booking.endDate = end.toLocalDate();
+        booking.endTime = end.toLocalTime();
+        return booking;
+    }
+}
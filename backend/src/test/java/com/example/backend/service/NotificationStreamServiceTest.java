@@ -0,0 +1,130 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Notification;
+import com.example.backend.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * A stream that can't be written to must not hold up whoever publishes new
+ * notifications, other users' streams, or the heartbeat
+ */
+class NotificationStreamServiceTest {
+
+    private final NotificationRepository repository = mock(NotificationRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void blockedStreamDoesNotStallPublisher() throws Exception {
+        NotificationStreamService service = service(1000, 60_000, 60_000);
+        SseEmitter emitter = service.connect(7L, null);
+
+        try (SlowClient ignored = new SlowClient(emitter)) {
+            assertTimeoutPreemptively(Duration.ofSeconds(2),
+                    () -> service.onCreated(new NotificationsCreatedEvent(List.of(notification(1L, 7L)))));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void blockedStreamDoesNotDelayUsersOnOtherFanOutThreads() throws Exception {
+        NotificationStreamService service = service(1000, 60_000, 60_000);
+        SseEmitter slow = service.connect(7L, null);
+        service.connect(8L, null);
+
+        try (SlowClient ignored = new SlowClient(slow)) {
+            service.onCreated(new NotificationsCreatedEvent(List.of(notification(1L, 7L), notification(2L, 8L))));
+            // Once on connect, once after the push
+            verify(repository, timeout(2000).times(2)).countByUserIdAndRead(8L, false);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void pushesSkippedWhileBehindAreCounted() throws Exception {
+        NotificationStreamService service = service(1, 60_000, 60_000);
+        SseEmitter emitter = service.connect(7L, null);
+
+        try (SlowClient ignored = new SlowClient(emitter)) {
+            for (long id = 1; id <= 4; id++) {
+                service.onCreated(new NotificationsCreatedEvent(List.of(notification(id, 7L))));
+            }
+            assertThat(meterRegistry.get("notifications.stream.pushes.skipped").counter().count()).isGreaterThanOrEqualTo(1);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void streamStuckInAWriteIsDropped() throws Exception {
+        NotificationStreamService service = service(1000, 50, 200);
+        SseEmitter emitter = service.connect(7L, null);
+
+        try (SlowClient ignored = new SlowClient(emitter)) {
+            service.onCreated(new NotificationsCreatedEvent(List.of(notification(1L, 7L))));
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (service.isConnected(7L) && System.nanoTime() < deadline) Thread.sleep(20);
+
+            assertThat(service.isConnected(7L)).isFalse();
+            assertThat(meterRegistry.get("notifications.stream.dropped").counter().count()).isEqualTo(1);
+        } finally {
+            service.shutdown();
+        }
+        verify(repository, times(1)).countByUserIdAndRead(7L, false);
+    }
+
+    private NotificationStreamService service(int fanOutQueue, long heartbeatMillis, long sendTimeoutMillis) {
+        return new NotificationStreamService(repository, 60_000, 5, 100, 2, fanOutQueue,
+                heartbeatMillis, sendTimeoutMillis, meterRegistry);
+    }
+
+    private static Notification notification(Long id, Long userId) {
+        Notification n = Notification.of(userId, "booking", "Booked", "Your booking is confirmed", null);
+        n.id = id;
+        return n;
+    }
+
+    /**
+     * Emitter sends are synchronized on the emitter; holding it stands in for a full socket
+     */
+    private static final class SlowClient implements AutoCloseable {
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final Thread thread;
+
+        SlowClient(SseEmitter emitter) throws InterruptedException {
+            CountDownLatch held = new CountDownLatch(1);
+            thread = new Thread(() -> {
+                synchronized (emitter) {
+                    held.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            thread.start();
+            held.await();
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            release.countDown();
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Booking;
+import com.example.backend.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Only equipment that was handed over can be overdue; an advance booking nobody
+ * picked up expires instead of holding the farmer's next borrow
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OverdueSweeperTest {
+
+    @Autowired private OverdueSweeper overdueSweeper;
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private UserBookingStatsService bookingStats;
+
+    @Test
+    void unclaimedAdvanceBookingExpiresAndPickedUpOneIsOverdue() {
+        long farmer = 990_101L;
+        LocalDateTime start = LocalDateTime.now().minusHours(3);
+        bookingStats.get(farmer);
+
+        Booking noShow = save(booking(farmer, start));
+        Booking pickedUp = booking(farmer, start);
+        pickedUp.checkOutTime = start;
+        pickedUp = save(pickedUp);
+
+        overdueSweeper.sweep();
+
+        assertThat(bookingRepository.findById(noShow.id).orElseThrow().status).isEqualTo("expired");
+        assertThat(bookingRepository.findById(pickedUp.id).orElseThrow().status).isEqualTo("overdue");
+        assertThat(bookingStats.get(farmer)).isEqualTo(new UserBookingStatsService.Counts(0, 1, 2));
+    }
+
+    private Booking save(Booking booking) {
+        Booking saved = bookingRepository.save(booking);
+        bookingStats.onBookingChanged(BookingChangedEvent.of(saved));
+        return saved;
+    }
+
+    private static Booking booking(long userId, LocalDateTime start) {
+        Booking booking = new Booking();
+        booking.equipmentId = -1L;
+        booking.userId = userId;
+        booking.operatorId = -1L;
+        booking.status = "confirmed";
+        booking.startDate = start.toLocalDate();
+        booking.startTime = start.toLocalTime();
+        booking.endDate = start.plusHours(1).toLocalDate();
+        booking.endTime = start.plusHours(1).toLocalTime();
+        return booking;
+    }
+}
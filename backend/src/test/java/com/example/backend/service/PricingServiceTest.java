@@ -0,0 +1,45 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Equipment;
+import com.example.backend.repository.EquipmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cached rates expire, so a price edit made on another replica reaches this one
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PricingServiceTest {
+
+    @Autowired private EquipmentRepository equipmentRepository;
+
+    @Test
+    void expiredRatesAreReloaded() throws Exception {
+        Equipment baler = new Equipment();
+        baler.name = "Pricing Baler";
+        baler.category = "Baler";
+        baler.pricePerHour = 100.0;
+        baler.operatorId = -1L;
+        equipmentRepository.save(baler);
+
+        PricingService pricing = new PricingService(equipmentRepository, 100, 0, 50);
+        List<PricingService.QuoteRequest> twoHours =
+                List.of(new PricingService.QuoteRequest(baler.id, PricingService.HOURS, Duration.ofHours(2)));
+        assertThat(pricing.quote(twoHours).get(0).totalAmount()).isEqualTo(200.0);
+
+        // Edited elsewhere: nothing evicts this replica's copy, it has to expire
+        baler.pricePerHour = 150.0;
+        equipmentRepository.save(baler);
+
+        Thread.sleep(60);
+        assertThat(pricing.quote(twoHours).get(0).totalAmount()).isEqualTo(300.0);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins which label formats check-in and check-out accept. The baseline only
+ * took EQUIPMENT:id:name; every format the app has printed since is accepted
+ * too, unsigned ones only while qr.token.require-signed is off.
+ */
+class QRCodeServiceFormatsTest {
+
+    @TempDir
+    Path keys;
+
+    @Test
+    void acceptsEveryEquipmentFormatWhileUnsignedAllowed() {
+        QrTokenService tokens = tokens(false);
+        QRCodeService service = new QRCodeService(tokens, new SimpleMeterRegistry());
+
+        assertAccepted(service, "EQUIPMENT:5:Tractor:7f3a9c21", "EQUIPMENT");
+        assertAccepted(service, "EQ-5-7F3A9C21|Tractor|Khera|AVAILABLE", "RICH");
+        assertAccepted(service, "EQ-5-7F3A9C21", "SIMPLE");
+        assertAccepted(service, "QR_5", "LEGACY");
+        assertAccepted(service, "5", "NUMERIC");
+        assertAccepted(service, tokens.issue(5), "SIGNED");
+    }
+
+    @Test
+    void rejectsBookingCodesForgeriesAndGarbage() {
+        QRCodeService service = new QRCodeService(tokens(false), new SimpleMeterRegistry());
+
+        assertRejected(service, "BOOKING:1:EQUIPMENT:5:ACTION:checkout:TIME:2024-06-01T10:00");
+        assertRejected(service, "EQ1:ZZZZ:5:AAAAAAAAAAAAAAAA");
+        assertRejected(service, "EQUIPMENT:x:Tractor");
+        assertRejected(service, "5a");
+        assertRejected(service, "");
+    }
+
+    @Test
+    void acceptsOnlySignedTokensWhenRequired() {
+        QrTokenService tokens = tokens(true);
+        QRCodeService service = new QRCodeService(tokens, new SimpleMeterRegistry());
+
+        assertAccepted(service, tokens.issue(5), "SIGNED");
+        assertRejected(service, "EQUIPMENT:5:Tractor:7f3a9c21");
+        assertRejected(service, "EQ-5-7F3A9C21");
+        assertRejected(service, "QR_5");
+        assertRejected(service, "5");
+    }
+
+    private QrTokenService tokens(boolean requireSigned) {
+        QrTokenService tokens = new QrTokenService(keys.resolve("qr-keys.properties").toString(), requireSigned);
+        tokens.init();
+        return tokens;
+    }
+
+    private static void assertAccepted(QRCodeService service, String qrData, String format) {
+        Map<String, Object> result = service.validateEquipmentQRCode(qrData);
+        assertThat(result).as(qrData).containsEntry("valid", true).containsEntry("format", format);
+        assertThat(((Number) result.get("equipmentId")).longValue()).as(qrData).isEqualTo(5L);
+    }
+
+    private static void assertRejected(QRCodeService service, String qrData) {
+        assertThat(service.validateEquipmentQRCode(qrData)).as(qrData).containsEntry("valid", false);
+    }
+}
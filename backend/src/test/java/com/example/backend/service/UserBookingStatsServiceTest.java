@@ -0,0 +1,107 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Booking;
+import com.example.backend.repository.BookingRepository;
+import com.example.backend.repository.UserBookingStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two replicas changing the same user's bookings at once must not lose counts
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserBookingStatsServiceTest {
+
+    private static final int CHANGES_PER_REPLICA = 40;
+
+    @Autowired private UserBookingStatsService stats;
+    @Autowired private UserBookingStatsRepository statsRepository;
+    @Autowired private BookingRepository bookingRepository;
+
+    @Test
+    void concurrentChangesOnTwoReplicasAreAllCounted() throws Exception {
+        long userId = 990_001L;
+        assertThat(stats.get(userId)).isEqualTo(new UserBookingStatsService.Counts(0, 0, 0));
+
+        // A second replica: its own service and cache over the same table
+        UserBookingStatsService other = new UserBookingStatsService(statsRepository, bookingRepository, 10_000);
+        List<UserBookingStatsService> replicas = List.of(stats, other);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (UserBookingStatsService replica : replicas) {
+                for (int i = 0; i < CHANGES_PER_REPLICA; i++) {
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        Booking booking = new Booking();
+                        booking.userId = userId;
+                        booking.status = "confirmed";
+                        replica.onBookingChanged(new BookingChangedEvent(booking, null));
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int expected = replicas.size() * CHANGES_PER_REPLICA;
+        assertThat(stats.get(userId)).isEqualTo(new UserBookingStatsService.Counts(expected, 0, expected));
+        assertThat(statsRepository.findById(userId).orElseThrow().activeCount).isEqualTo(expected);
+    }
+
+    @Test
+    void countsBelowZeroAreStoredNotHidden() {
+        long userId = 990_002L;
+        stats.get(userId);
+
+        Booking booking = new Booking();
+        booking.userId = userId;
+        booking.status = "completed";
+        stats.onBookingChanged(new BookingChangedEvent(booking, "confirmed"));
+
+        // A return the counters never saw start shows up as drift
+        assertThat(stats.get(userId).active()).isEqualTo(-1);
+    }
+
+    @Test
+    void changeIsAppliedWhenAnotherRequestCreatesTheRowFirst() {
+        UserBookingStatsRepository rows = mock(UserBookingStatsRepository.class);
+        // No row yet, then another request inserts one from counts taken before this booking committed
+        when(rows.addTo(eq(990_003L), anyInt(), anyInt(), anyInt(), any())).thenReturn(0, 1);
+        when(rows.insert(eq(990_003L), anyInt(), anyInt(), anyInt(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        UserBookingStatsService service = new UserBookingStatsService(rows, mock(BookingRepository.class), 10_000);
+
+        Booking booking = new Booking();
+        booking.userId = 990_003L;
+        booking.status = "confirmed";
+        service.onBookingChanged(new BookingChangedEvent(booking, null));
+
+        verify(rows, times(2)).addTo(eq(990_003L), eq(1), eq(0), eq(1), any());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class KeyFilesTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replacesContentsWithOwnerOnlyFileUnderLock() throws Exception {
+        Path keyFile = dir.resolve("keys/secret.properties");
+
+        for (String value : new String[] {"first", "second"}) {
+            KeyFiles.withLock(keyFile, () -> {
+                Properties props = new Properties();
+                props.setProperty("key", value);
+                KeyFiles.write(keyFile, props, null);
+                return null;
+            });
+        }
+
+        assertThat(KeyFiles.read(keyFile).getProperty("key")).isEqualTo("second");
+        assertThat(keyFile.resolveSibling("secret.properties.tmp")).doesNotExist();
+
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(keyFile))).isEqualTo("rw-------");
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.backend.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The split-based QR parsers the backend used before QrPayloadCodec,
+ * kept verbatim as the baseline for benchmarks and QrPayloadCodecCorpusTest.
+ */
+public final class LegacyQrParsers {
+
+    private LegacyQrParsers() {}
+
+    /** QRScanController.parseEquipmentId */
+    public static Long parseEquipmentId(String qrData) {
+        try {
+            // Format: EQ-123-XXXXX
+            if (qrData.startsWith("EQ-")) {
+                String[] parts = qrData.split("-");
+                if (parts.length >= 2) {
+                    return Long.parseLong(parts[1]);
+                }
+            }
+
+            // Format: QR_123
+            if (qrData.startsWith("QR_")) {
+                return Long.parseLong(qrData.substring(3));
+            }
+
+            // Format: EQUIPMENT:123:name:uuid
+            if (qrData.startsWith("EQUIPMENT:")) {
+                String[] parts = qrData.split(":");
+                if (parts.length >= 2) {
+                    return Long.parseLong(parts[1]);
+                }
+            }
+
+            // Try direct numeric parsing
+            return Long.parseLong(qrData);
+
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** QRCodeService.validateEquipmentQRCode */
+    public static Map<String, Object> validateEquipmentQRCode(String qrData) {
+        Map<String, Object> result = new HashMap<>();
+
+        try {
+            String[] parts = qrData.split(":");
+
+            if (parts.length >= 3 && "EQUIPMENT".equals(parts[0])) {
+                result.put("valid", true);
+                result.put("type", "EQUIPMENT");
+                result.put("equipmentId", Long.parseLong(parts[1]));
+                result.put("equipmentName", parts[2]);
+
+                if (parts.length >= 4) {
+                    result.put("uniqueCode", parts[3]);
+                }
+            } else {
+                result.put("valid", false);
+                result.put("error", "Invalid QR code format");
+            }
+        } catch (Exception e) {
+            result.put("valid", false);
+            result.put("error", "Failed to parse QR code: " + e.getMessage());
+        }
+
+        return result;
+    }
+
+    /** QRCodeService.validateBookingQRCode */
+    public static Map<String, Object> validateBookingQRCode(String qrData) {
+        Map<String, Object> result = new HashMap<>();
+
+        try {
+            // Format: BOOKING:id:EQUIPMENT:id:ACTION:action:TIME:timestamp
+            String[] parts = qrData.split(":");
+
+            if (parts.length >= 8 && "BOOKING".equals(parts[0]) && "EQUIPMENT".equals(parts[2]) && "ACTION".equals(parts[4])) {
+                result.put("valid", true);
+                result.put("type", "BOOKING");
+                result.put("bookingId", Long.parseLong(parts[1]));
+                result.put("equipmentId", Long.parseLong(parts[3]));
+                result.put("action", parts[5]);
+
+                if (parts.length >= 8 && "TIME".equals(parts[6])) {
+                    result.put("timestamp", parts[7]);
+                }
+            } else {
+                result.put("valid", false);
+                result.put("error", "Invalid booking QR code format");
+            }
+        } catch (Exception e) {
+            result.put("valid", false);
+            result.put("error", "Failed to parse booking QR code: " + e.getMessage());
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.backend.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seed payloads from qr-corpus.txt plus deterministic mutations of them.
+ */
+public final class QrCorpus {
+
+    // Characters that matter to at least one of the formats
+    private static final String ALPHABET = "0123456789-:|_EQRUIPMNTBOKGACx +";
+
+    private QrCorpus() {}
+
+    public static List<String> seeds() {
+        List<String> seeds = new ArrayList<>();
+        try (InputStream in = QrCorpus.class.getResourceAsStream("/qr-corpus.txt")) {
+            if (in == null) throw new IllegalStateException("qr-corpus.txt missing from classpath");
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#")) continue;
+                // "<empty>" stands for the empty payload, which a text file can't hold on its own line
+                seeds.add("<empty>".equals(line) ? "" : line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return seeds;
+    }
+
+    public static String mutate(String seed, Random random) {
+        StringBuilder sb = new StringBuilder(seed);
+        int edits = 1 + random.nextInt(3);
+        for (int i = 0; i < edits; i++) {
+            int op = random.nextInt(3);
+            int at = sb.length() == 0 ? 0 : random.nextInt(sb.length() + (op == 0 ? 1 : 0));
+            char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            if (op == 0 || sb.length() == 0) {
+                sb.insert(Math.min(at, sb.length()), c);
+            } else if (op == 1) {
+                sb.deleteCharAt(at);
+            } else {
+                sb.setCharAt(at, c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Differential fuzz test: every seed in qr-corpus.txt and every mutation of
+ * one must decode the same way through QrPayloadCodec as through the legacy
+ * split-based parsers.
+ *
+ * Known, intended differences are not failures:
+ * - legacy Long.parseLong accepted a leading '+'/'-' and 19-digit ids; the codec takes 1-18 plain digits
+ * - legacy booking parsing cut the timestamp at its first ':'; the codec keeps the whole timestamp
+ * - the codec validates every equipment format, legacy validation only knew EQUIPMENT:
+ */
+class QrPayloadCodecCorpusTest {
+
+    private static final int MUTATIONS = 200_000;
+    private static final long SEED = 20240601L;
+
+    private final List<String> mismatches = new ArrayList<>();
+
+    @Test
+    void codecMatchesLegacyParsersOnCorpusAndMutations() {
+        List<String> seeds = QrCorpus.seeds();
+        assertThat(seeds).isNotEmpty();
+
+        Random random = new Random(SEED);
+        for (String input : seeds) {
+            check(input);
+        }
+        for (int i = 0; i < MUTATIONS; i++) {
+            check(QrCorpus.mutate(seeds.get(random.nextInt(seeds.size())), random));
+        }
+
+        assertThat(mismatches).as("payloads decoded differently from the legacy parsers").isEmpty();
+    }
+
+    /** @return 0 when equivalent, 1 for a known legacy quirk, -1 for a mismatch */
+    private int check(String input) {
+        Long legacyId = LegacyQrParsers.parseEquipmentId(input);
+        Long codecId = QrPayloadCodec.equipmentId(input);
+        QrPayload payload = QrPayloadCodec.parse(input);
+
+        boolean quirk = hasSignOrLongDigits(input);
+        if (!equal(legacyId, codecId)) {
+            if (quirk) return 1;
+            return report(input, "equipmentId", legacyId, codecId);
+        }
+        // Signed tokens only yield an id once QrTokenService has verified them
+        Long parsedId = payload == null || payload.isBooking() || payload.format() == QrPayload.Format.SIGNED
+                ? null : payload.equipmentId();
+        if (!equal(codecId, parsedId)) {
+            return report(input, "parse vs equipmentId", codecId, parsedId);
+        }
+
+        Map<String, Object> legacyEquipment = LegacyQrParsers.validateEquipmentQRCode(input);
+        if (Boolean.TRUE.equals(legacyEquipment.get("valid"))) {
+            if (payload == null || payload.format() != QrPayload.Format.EQUIPMENT) {
+                return quirk ? 1 : report(input, "EQUIPMENT format", legacyEquipment, payload);
+            }
+            if (!equal(legacyEquipment.get("equipmentId"), payload.equipmentId())
+                    || !equal(legacyEquipment.get("equipmentName"), payload.name())
+                    || !equal(legacyEquipment.get("uniqueCode"), payload.code())) {
+                return quirk ? 1 : report(input, "EQUIPMENT fields", legacyEquipment, payload);
+            }
+        }
+
+        Map<String, Object> legacyBooking = LegacyQrParsers.validateBookingQRCode(input);
+        if (Boolean.TRUE.equals(legacyBooking.get("valid"))) {
+            if (payload == null || !payload.isBooking()
+                    || !equal(legacyBooking.get("bookingId"), payload.bookingId())
+                    || !equal(legacyBooking.get("equipmentId"), payload.equipmentId())
+                    || !equal(legacyBooking.get("action"), payload.action())) {
+                return quirk ? 1 : report(input, "BOOKING fields", legacyBooking, payload);
+            }
+            Object legacyTimestamp = legacyBooking.get("timestamp");
+            if (legacyTimestamp != null && (payload.timestamp() == null || !payload.timestamp().startsWith(legacyTimestamp.toString()))) {
+                return report(input, "BOOKING timestamp", legacyTimestamp, payload.timestamp());
+            }
+        } else if (payload != null && payload.isBooking() && !quirk) {
+            return report(input, "BOOKING accepted by codec only", legacyBooking, payload);
+        }
+        return quirk ? 1 : 0;
+    }
+
+    private static boolean hasSignOrLongDigits(String input) {
+        int run = 0;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == '+') return true;
+            if (c == '-' && i + 1 < input.length() && Character.isDigit(input.charAt(i + 1))
+                    && (i == 0 || !Character.isDigit(input.charAt(i - 1)) && input.charAt(i - 1) != '-')) {
+                // "-5" directly after a separator is a signed number to Long.parseLong
+                if (i > 0 && (input.charAt(i - 1) == '_' || input.charAt(i - 1) == ':')) return true;
+            }
+            run = Character.isDigit(c) ? run + 1 : 0;
+            if (run > 18) return true;
+        }
+        return input.startsWith("-");
+    }
+
+    private static boolean equal(Object a, Object b) {
+        if (a == null || b == null) return a == b;
+        if (a instanceof Number x && b instanceof Number y) return x.longValue() == y.longValue();
+        return a.equals(b);
+    }
+
+    private int report(String input, String what, Object legacy, Object codec) {
+        if (mismatches.size() < 20) {
+            mismatches.add(String.format("%s input=\"%s\" legacy=%s codec=%s", what, input, legacy, codec));
+        }
+        return -1;
+    }
+}
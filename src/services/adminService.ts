@@ -14,6 +14,21 @@ export interface User {
   totalEquipment?: number;
 }
 
+export interface UserFilters {
+  role?: string;
+  village?: string;
+  active?: boolean;
+  q?: string;
+  after?: number;
+  limit?: number;
+}
+
+export interface UserPage {
+  items: User[];
+  hasMore: boolean;
+  nextCursor: number | null;
+}
+
 export interface Analytics {
   totalUsers: number;
   totalOperators: number;
@@ -53,9 +68,9 @@ export interface Report {
 }
 
 export const adminService = {
-  // User Management
-  getAllUsers: async (role?: string): Promise<User[]> => {
-    const response = await api.get('/admin/users', { params: { role } });
+  // User Management - one page at a time; pass nextCursor back as "after" for the next page
+  getUsers: async (filters: UserFilters = {}): Promise<UserPage> => {
+    const response = await api.get('/admin/users', { params: filters });
     return response.data;
   },
 